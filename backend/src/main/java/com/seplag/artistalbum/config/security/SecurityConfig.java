@@ -46,6 +46,8 @@ public class SecurityConfig {
 //                        .requestMatchers("/v1/**").permitAll()
                         .requestMatchers("/v1/catalogo/**").permitAll()
                         .requestMatchers("/v1/artistas/*/foto").permitAll()
+                        // Autorizado pela assinatura da URL (armazenamento em sistema de arquivos)
+                        .requestMatchers("/v1/objetos/**").permitAll()
                         .requestMatchers("/").permitAll()
                         .anyRequest().authenticated()
 
@@ -77,7 +79,7 @@ public class SecurityConfig {
         configuracao.setAllowedHeaders(Arrays.asList("*"));
         configuracao.setAllowCredentials(true);
         configuracao.setMaxAge(3600L); // Cache preflight por 1 hora
-        configuracao.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuracao.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag", "X-Catalogo-Versao", "Content-Range", "Accept-Ranges", "Last-Modified"));
 
         UrlBasedCorsConfigurationSource fonte = new UrlBasedCorsConfigurationSource();
         fonte.registerCorsConfiguration("/**", configuracao);
@@ -0,0 +1,24 @@
+package com.seplag.artistalbum.config.web;
+
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.domain.artista.dto.ArtistaDTO;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Liga o filtro de {@code fields} aos DTOs de artista e álbum no ObjectMapper da aplicação.
+ * O filtro padrão serializa tudo, então respostas sem {@code fields} não mudam.
+ */
+@Configuration
+public class CamposRespostaConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtrosCamposResposta() {
+        return builder -> builder
+                .mixIn(ArtistaDTO.class, CamposResposta.FiltroArtista.class)
+                .mixIn(AlbumDTO.class, CamposResposta.FiltroAlbum.class)
+                .filters(CamposResposta.provedorPadrao());
+    }
+}
@@ -9,23 +9,34 @@ import com.seplag.artistalbum.domain.album.model.AlbumModel;
 import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
 import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
 import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
+import com.seplag.artistalbum.shared.dto.UploadConfirmacaoRequestDTO;
+import com.seplag.artistalbum.shared.dto.UploadIntencaoDTO;
+import com.seplag.artistalbum.shared.dto.UploadIntencaoRequestDTO;
 import com.seplag.artistalbum.shared.exception.ResourceNotFoundException;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.ImagemStreamService;
 import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.UploadDiretoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,14 +47,22 @@ public class AlbumResource {
 
     private final AlbumService albumService;
     private final MinioService minioService;
+    private final ImagemStreamService imagemStreamService;
+    private final UploadDiretoService uploadDiretoService;
+    private final ConteudoImagemService conteudoImagemService;
 
     private final AlbumRepository albumRepository;
     private final AlbumCapaRepository albumCapaRepository;
 
 
-    public AlbumResource(AlbumService albumService, MinioService minioService, AlbumRepository albumRepository, AlbumCapaRepository albumCapaRepository) {
+    public AlbumResource(AlbumService albumService, MinioService minioService, ImagemStreamService imagemStreamService,
+                         UploadDiretoService uploadDiretoService, ConteudoImagemService conteudoImagemService,
+                         AlbumRepository albumRepository, AlbumCapaRepository albumCapaRepository) {
         this.albumService = albumService;
         this.minioService = minioService;
+        this.imagemStreamService = imagemStreamService;
+        this.uploadDiretoService = uploadDiretoService;
+        this.conteudoImagemService = conteudoImagemService;
         this.albumRepository = albumRepository;
         this.albumCapaRepository = albumCapaRepository;
     }
@@ -82,12 +101,12 @@ public class AlbumResource {
             @Parameter(description = "Arquivo da imagem de capa") @RequestParam("arquivo") MultipartFile arquivo) {
 
         try {
-            String tipoConteudo = arquivo.getContentType();
-            if (tipoConteudo == null || !tipoConteudo.startsWith("image/")) {
+            AlbumService.UploadCapa upload = paraUpload(arquivo);
+            if (upload == null) {
                 return ResponseEntity.badRequest().build();
             }
 
-            AlbumDTO album = albumService.fazerUploadImagemCapa(id, arquivo.getBytes(), arquivo.getOriginalFilename(), tipoConteudo);
+            AlbumDTO album = albumService.fazerUploadImagemCapa(id, upload);
             return ResponseEntity.ok(album);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -102,11 +121,11 @@ public class AlbumResource {
         try {
             List<AlbumService.UploadCapa> uploads = new ArrayList<>();
             for (MultipartFile arquivo : arquivos) {
-                String tipoConteudo = arquivo.getContentType();
-                if (tipoConteudo == null || !tipoConteudo.startsWith("image/")) {
+                AlbumService.UploadCapa upload = paraUpload(arquivo);
+                if (upload == null) {
                     return ResponseEntity.badRequest().build();
                 }
-                uploads.add(new AlbumService.UploadCapa(arquivo.getOriginalFilename(), arquivo.getBytes(), tipoConteudo));
+                uploads.add(upload);
             }
 
             AlbumDTO album = albumService.adicionarCapas(id, uploads);
@@ -116,6 +135,24 @@ public class AlbumResource {
         }
     }
 
+    @PostMapping("/{id}/capas/intencao-upload")
+    @Operation(summary = "Obter URL assinada para enviar uma capa direto ao armazenamento")
+    public ResponseEntity<UploadIntencaoDTO> criarIntencaoUploadCapa(
+            @Parameter(description = "ID do álbum") @PathVariable Long id,
+            @Valid @RequestBody UploadIntencaoRequestDTO request) throws Exception {
+        albumService.obterAlbumPorId(id);
+        return ResponseEntity.ok(uploadDiretoService.criarIntencao(AlbumService.prefixoCapas(id), request));
+    }
+
+    @PostMapping("/{id}/capas/confirmar-upload")
+    @Operation(summary = "Confirmar capa enviada pela URL assinada")
+    public ResponseEntity<AlbumDTO> confirmarUploadCapa(
+            @Parameter(description = "ID do álbum") @PathVariable Long id,
+            @Valid @RequestBody UploadConfirmacaoRequestDTO request) throws Exception {
+        uploadDiretoService.confirmar(AlbumService.prefixoCapas(id), request.getChaveObjeto());
+        return ResponseEntity.ok(albumService.registrarCapaEnviada(id, request.getChaveObjeto()));
+    }
+
     @PutMapping(value = "/{id}/capa", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "atualizar imagem de capa do álbum")
     public ResponseEntity<AlbumDTO> atualizarUploadImagemCapa(
@@ -123,21 +160,40 @@ public class AlbumResource {
             @Parameter(description = "Arquivo da imagem de capa") @RequestParam("arquivo") MultipartFile arquivo) {
 
         try {
-            String tipoConteudo = arquivo.getContentType();
-            if (tipoConteudo == null || !tipoConteudo.startsWith("image/")) {
+            AlbumService.UploadCapa upload = paraUpload(arquivo);
+            if (upload == null) {
                 return ResponseEntity.badRequest().build();
             }
 
-            AlbumDTO album = albumService.attImagemCapa(id, arquivo.getBytes(), arquivo.getOriginalFilename(), tipoConteudo);
+            AlbumDTO album = albumService.attImagemCapa(id, upload);
             return ResponseEntity.ok(album);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * As partes já estão em disco (limites em spring.servlet.multipart.*); aqui só lemos o cabeçalho
+     * para conferir o tipo pelos bytes, não pelo Content-Type declarado pelo cliente.
+     * O conteúdo é lido de novo, em stream, na hora de enviar ao MinIO.
+     */
+    private static AlbumService.UploadCapa paraUpload(MultipartFile arquivo) throws IOException {
+        String tipoConteudo;
+        try (InputStream entrada = arquivo.getInputStream()) {
+            tipoConteudo = DerivadosImagemService.detectarTipo(entrada);
+        }
+        if (tipoConteudo == null) {
+            return null;
+        }
+        return new AlbumService.UploadCapa(arquivo.getOriginalFilename(), arquivo.getSize(), tipoConteudo, arquivo::getInputStream);
+    }
+
     @GetMapping("/capa/{idAlbum}")
     @Operation(summary = "Obter imagem de capa do álbum")
-    public ResponseEntity<Resource> obterImagemCapaAlbum(@Parameter(description = "ID do álbum") @PathVariable Long idAlbum) {
+    public ResponseEntity<StreamingResponseBody> obterImagemCapaAlbum(
+            @Parameter(description = "ID do álbum") @PathVariable Long idAlbum,
+            @Parameter(description = "Lado maior desejado em px (usa a miniatura 64/256/1024 quando existir)") @RequestParam(required = false) Integer size,
+            WebRequest requisicao) {
         try {
             AlbumResponseDTO album = albumService.obterAlbumPorId(idAlbum);
 
@@ -154,7 +210,6 @@ public class AlbumResource {
             if (capaAlbum == null) {
                 return ResponseEntity.notFound().build();
             }
-            byte[] dadosImagem = minioService.downloadFile(capaAlbum);
 //            String tipoConteudo = "image/jpeg";
 //            if (capaAlbum.toLowerCase().endsWith(".png")) {
 //                tipoConteudo = "image/png";
@@ -169,20 +224,23 @@ public class AlbumResource {
 //        } catch (Exception e) {
 //            return ResponseEntity.notFound().build();
 //        }
-            ByteArrayResource recurso = new ByteArrayResource(dadosImagem);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(definirTipoConteudo(capaAlbum)))
-                    .contentLength(dadosImagem.length)
-                    .body(recurso);
+            String chaveEntrega = capaAlbum;
+            if (DerivadosImagemService.tamanhoVariante(size) != null
+                    && albumCapaRepository.existsByChaveObjetoAndDerivadosTrue(capaAlbum)) {
+                chaveEntrega = DerivadosImagemService.chaveEntrega(capaAlbum, true, size);
+            }
+            return imagemStreamService.entregar(chaveEntrega, definirTipoConteudo(capaAlbum, chaveEntrega), requisicao);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
     @GetMapping("/{id}/capas/{idCapa}/arquivo")
     @Operation(summary = "Obter imagem de capa do álbum por capa específica")
-    public ResponseEntity<Resource> obterImagemCapaAlbumPorId(
+    public ResponseEntity<StreamingResponseBody> obterImagemCapaAlbumPorId(
             @PathVariable Long id,
-            @PathVariable Long idCapa
+            @PathVariable Long idCapa,
+            @RequestParam(required = false) Integer size,
+            WebRequest requisicao
     ) {
         try {
             AlbumCapaModel capa = albumCapaRepository.findById(idCapa)
@@ -195,12 +253,8 @@ public class AlbumResource {
             if (chaveObjeto == null || chaveObjeto.isBlank()) {
                 return ResponseEntity.notFound().build();
             }
-            byte[] dadosImagem = minioService.downloadFile(chaveObjeto);
-            ByteArrayResource recurso = new ByteArrayResource(dadosImagem);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(definirTipoConteudo(chaveObjeto)))
-                    .contentLength(dadosImagem.length)
-                    .body(recurso);
+            String chaveEntrega = DerivadosImagemService.chaveEntrega(chaveObjeto, capa.isDerivados(), size);
+            return imagemStreamService.entregar(chaveEntrega, definirTipoConteudo(chaveObjeto, chaveEntrega), requisicao);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -224,8 +278,18 @@ public class AlbumResource {
         return ResponseEntity.noContent().build();
     }
 
-    private String definirTipoConteudo(String caminho) {
-        String lower = caminho == null ? "" : caminho.toLowerCase();
+    /*
+     * Derivados são sempre JPEG. O original endereçado pelo conteúdo não tem extensão: vale o tipo detectado no
+     * envio; sem ele (ou sem extensão conhecida), null deixa o ImagemStreamService usar o tipo gravado no objeto.
+     */
+    private String definirTipoConteudo(String chaveOriginal, String chaveEntrega) {
+        if (!chaveEntrega.equals(chaveOriginal)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (ConteudoImagemService.enderecadaPorConteudo(chaveOriginal)) {
+            return conteudoImagemService.tipoConteudo(chaveOriginal);
+        }
+        String lower = chaveOriginal.toLowerCase();
         if (lower.endsWith(".png")) {
             return "image/png";
         }
@@ -238,33 +302,42 @@ public class AlbumResource {
         if (lower.endsWith(".svg")) {
             return "image/svg+xml";
         }
-        return "image/jpeg";
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        return null;
     }
     /* =========================
 
        ========================= */
     @GetMapping("/artista/{idArtista}")
     @Operation(summary = "Obter álbuns por artista com paginação")
-    public ResponseEntity<Page<AlbumDTO>> obterAlbunsPorArtista(
+    public ResponseEntity<MappingJacksonValue> obterAlbunsPorArtista(
             @Parameter(description = "ID do artista") @PathVariable Long idArtista,
             @Parameter(description = "Número da página (baseado em 0)") @RequestParam(defaultValue = "0") int pagina,
-            @Parameter(description = "Número de itens por página") @RequestParam(defaultValue = "10") int tamanho) {
+            @Parameter(description = "Número de itens por página") @RequestParam(defaultValue = "10") int tamanho,
+            @Parameter(description = "Campos do álbum a retornar (ex.: id,titulo)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Lado maior da capa em px (URL assinada da miniatura 64/256/1024)") @RequestParam(required = false) Integer size) {
 
         Pageable paginacao = PageRequest.of(pagina, tamanho);
-        Page<AlbumDTO> albuns = albumService.obterAlbunsPorArtista(idArtista, paginacao);
-        return ResponseEntity.ok(albuns);
+        CamposResposta campos = CamposResposta.de(fields, null).comTamanhoImagem(size);
+        Page<AlbumDTO> albuns = albumService.obterAlbunsPorArtista(idArtista, paginacao, campos);
+        return ResponseEntity.ok(campos.aplicar(albuns, CamposResposta.FILTRO_ALBUM));
     }
 
     @GetMapping("/all")
     @Operation(summary = "Listar todos os álbuns com paginação e ordenação")
-    public ResponseEntity<Page<AlbumDTO>> listarTodosAlbuns(
+    public ResponseEntity<MappingJacksonValue> listarTodosAlbuns(
             @Parameter(description = "Número da página (baseado em 0)") @RequestParam(defaultValue = "0") int pagina,
             @Parameter(description = "Número de itens por página") @RequestParam(defaultValue = "10") int tamanho,
-            @Parameter(description = "Direção da ordenação (asc ou desc)") @RequestParam(defaultValue = "asc") String ordenacao) {
+            @Parameter(description = "Direção da ordenação (asc ou desc)") @RequestParam(defaultValue = "asc") String ordenacao,
+            @Parameter(description = "Campos do álbum a retornar (ex.: id,titulo)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Lado maior da capa em px (URL assinada da miniatura 64/256/1024)") @RequestParam(required = false) Integer size) {
 
         Pageable paginacao = PageRequest.of(pagina, tamanho);
-        Page<AlbumDTO> albuns = albumService.listarTodosAlbuns(paginacao, ordenacao);
-        return ResponseEntity.ok(albuns);
+        CamposResposta campos = CamposResposta.de(fields, null).comTamanhoImagem(size);
+        Page<AlbumDTO> albuns = albumService.listarTodosAlbuns(paginacao, ordenacao, campos);
+        return ResponseEntity.ok(campos.aplicar(albuns, CamposResposta.FILTRO_ALBUM));
     }
 
     @GetMapping("/artista/{idArtista}/todos")
@@ -289,7 +362,7 @@ public class AlbumResource {
         if (chave == null) return ResponseEntity.noContent().build();
 
         try {
-            String url = minioService.generatePresignedUrl(chave, 30 * 60);
+            String url = minioService.generatePresignedUrl30Min(chave);
             return ResponseEntity.ok(url);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
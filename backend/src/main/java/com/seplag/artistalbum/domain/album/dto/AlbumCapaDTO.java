@@ -5,14 +5,16 @@ public class AlbumCapaDTO {
     private String chaveObjeto;
     private String urlAssinada;
     private boolean principal;
+    private String placeholder;
 
     public AlbumCapaDTO() {}
 
-    public AlbumCapaDTO(Long idCapa, String chaveObjeto, String urlAssinada, boolean principal) {
+    public AlbumCapaDTO(Long idCapa, String chaveObjeto, String urlAssinada, boolean principal, String placeholder) {
         this.idCapa = idCapa;
         this.chaveObjeto = chaveObjeto;
         this.urlAssinada = urlAssinada;
         this.principal = principal;
+        this.placeholder = placeholder;
     }
 
     public Long getIdCapa() {
@@ -46,4 +48,12 @@ public class AlbumCapaDTO {
     public void setPrincipal(boolean principal) {
         this.principal = principal;
     }
+
+    public String getPlaceholder() {
+        return placeholder;
+    }
+
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
 }
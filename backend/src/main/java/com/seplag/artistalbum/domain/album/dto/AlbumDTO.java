@@ -16,6 +16,8 @@ public class AlbumDTO {
 
     private String urlImagemCapaAssinada;
 
+    private String placeholderCapa;
+
     private LocalDateTime dataCriacao;
 
     private LocalDateTime dataAtualizacao;
@@ -88,6 +90,14 @@ public class AlbumDTO {
         this.urlImagemCapaAssinada = urlImagemCapaAssinada;
     }
 
+    public String getPlaceholderCapa() {
+        return placeholderCapa;
+    }
+
+    public void setPlaceholderCapa(String placeholderCapa) {
+        this.placeholderCapa = placeholderCapa;
+    }
+
     public LocalDateTime getDataCriacao() {
         return dataCriacao;
     }
@@ -30,6 +30,13 @@ public class AlbumCapaModel {
     @Column(name = "principal", nullable = false)
     private boolean principal = false;
 
+    @Column(name = "derivados", nullable = false)
+    private boolean derivados = false;
+
+    @Size(max = 2000, message = "Placeholder da capa não deve exceder 2000 caracteres")
+    @Column(name = "placeholder")
+    private String placeholder;
+
     @CreationTimestamp
     @Column(name = "dataCriacao", nullable = false, updatable = false)
     private LocalDateTime dataCriacao;
@@ -73,6 +80,22 @@ public class AlbumCapaModel {
         this.principal = principal;
     }
 
+    public boolean isDerivados() {
+        return derivados;
+    }
+
+    public void setDerivados(boolean derivados) {
+        this.derivados = derivados;
+    }
+
+    public String getPlaceholder() {
+        return placeholder;
+    }
+
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
     public LocalDateTime getDataCriacao() {
         return dataCriacao;
     }
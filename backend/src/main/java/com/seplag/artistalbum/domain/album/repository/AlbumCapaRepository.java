@@ -2,6 +2,23 @@ package com.seplag.artistalbum.domain.album.repository;
 
 import com.seplag.artistalbum.domain.album.model.AlbumCapaModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface AlbumCapaRepository extends JpaRepository<AlbumCapaModel, Long> {
+
+    boolean existsByChaveObjetoAndDerivadosTrue(String chaveObjeto);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AlbumCapaModel c SET c.derivados = true WHERE c.chaveObjeto = :chave")
+    int marcarDerivados(@Param("chave") String chave);
+
+    @Query("SELECT c.chaveObjeto FROM AlbumCapaModel c WHERE c.chaveObjeto IN :chaves")
+    List<String> findChavesExistentes(@Param("chaves") Collection<String> chaves);
 }
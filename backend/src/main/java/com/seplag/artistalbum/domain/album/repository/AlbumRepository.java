@@ -1,16 +1,24 @@
 package com.seplag.artistalbum.domain.album.repository;
 
 import com.seplag.artistalbum.domain.album.model.AlbumModel;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface AlbumRepository extends JpaRepository<AlbumModel, Long> {
@@ -29,6 +37,10 @@ public interface AlbumRepository extends JpaRepository<AlbumModel, Long> {
     @EntityGraph(attributePaths = {"artista"})
     List<AlbumModel> findAll();
 
+    // Listagem completa ordenada (catálogo): sem o grafo, cada artista distinto viraria uma consulta
+    @EntityGraph(attributePaths = {"artista"})
+    List<AlbumModel> findAll(Sort sort);
+
     @Query("SELECT a FROM AlbumModel a WHERE a.artista.idArtista = :idArtista ORDER BY a.tituloAlbum ASC")
     Page<AlbumModel> findByArtistaIdOrderByTitulo(@Param("idArtista") Long idArtista, Pageable pageable);
 
@@ -47,4 +59,35 @@ public interface AlbumRepository extends JpaRepository<AlbumModel, Long> {
     Page<AlbumModel> findAllByArtista_IdArtista(Long idArtista, Pageable pageable);
 
     List<AlbumModel> findByArtista_IdArtistaOrderByTituloAlbumAsc(Long idArtista);
+
+    // Álbuns de uma página inteira de artistas em uma só consulta
+    @EntityGraph(attributePaths = {"artista"})
+    List<AlbumModel> findByArtista_IdArtistaInOrderByTituloAlbumAsc(Collection<Long> idsArtista);
+
+    @Query("SELECT a.artista.idArtista, COUNT(a) FROM AlbumModel a WHERE a.artista.idArtista IN :idsArtista GROUP BY a.artista.idArtista")
+    List<Object[]> countByArtistaIds(@Param("idsArtista") Collection<Long> idsArtista);
+
+    @Query("SELECT c.chaveObjeto FROM AlbumCapaModel c WHERE c.album.idAlbum = :idAlbum")
+    List<String> findChavesCapas(@Param("idAlbum") Long idAlbum);
+
+    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM AlbumCapaModel c " +
+            "WHERE c.chaveObjeto = :chave AND c.derivados = true")
+    boolean existsCapaComDerivados(@Param("chave") String chave);
+
+    @Query("SELECT c.chaveObjeto FROM AlbumCapaModel c WHERE c.album.artista.idArtista = :idArtista")
+    List<String> findChavesCapasPorArtista(@Param("idArtista") Long idArtista);
+
+    // Capa principal (ou a mais antiga) de cada álbum da página em uma só consulta:
+    // [idAlbum, chaveObjeto, derivados, placeholder]
+    @Query(value = "SELECT DISTINCT ON (idAlbum) idAlbum, chaveObjeto, derivados, placeholder FROM album_capa " +
+            "WHERE idAlbum IN (:idsAlbum) ORDER BY idAlbum, principal DESC, dataCriacao ASC", nativeQuery = true)
+    List<Object[]> findChavesCapaPrincipal(@Param("idsAlbum") Collection<Long> idsAlbum);
+
+    @EntityGraph(attributePaths = {"artista"})
+    List<AlbumModel> findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(LocalDateTime desde);
+
+    // Leitura em cursor para o catálogo em streaming, já com artista
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM AlbumModel a JOIN FETCH a.artista ORDER BY a.tituloAlbum ASC")
+    Stream<AlbumModel> streamAllOrderByTitulo();
 }
@@ -11,9 +11,15 @@ import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
 import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
 import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
 import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
 import com.seplag.artistalbum.shared.exception.ResourceNotFoundException;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.MetadadosImagem;
 import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
 import com.seplag.artistalbum.shared.websocket.UpdateMessage;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -21,28 +27,57 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class AlbumService {
 
+    // Álbuns convertidos de uma vez no catálogo em streaming (o mesmo intervalo de limpeza do CatalogoStreamService)
+    private static final int LOTE_STREAM = 200;
+
     private final AlbumRepository albumRepository;
     private final AlbumCapaRepository albumCapaRepository;
     private final ArtistaRepository artistaRepository;
     private final MinioService minioService;
+    private final DerivadosImagemService derivadosImagem;
+    private final TransferenciaImagensService transferenciaImagens;
+    private final ConteudoImagemService conteudoImagem;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transacao;
 
     public AlbumService(AlbumRepository albumRepository, AlbumCapaRepository albumCapaRepository, ArtistaRepository artistaRepository,
-                       MinioService minioService, SimpMessagingTemplate messagingTemplate) {
+                       MinioService minioService, DerivadosImagemService derivadosImagem,
+                       TransferenciaImagensService transferenciaImagens,
+                       ConteudoImagemService conteudoImagem,
+                       SimpMessagingTemplate messagingTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       TransactionTemplate transacao) {
         this.albumRepository = albumRepository;
         this.albumCapaRepository = albumCapaRepository;
         this.artistaRepository = artistaRepository;
         this.minioService = minioService;
+        this.derivadosImagem = derivadosImagem;
+        this.transferenciaImagens = transferenciaImagens;
+        this.conteudoImagem = conteudoImagem;
         this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transacao = transacao;
     }
 
     @Transactional
@@ -86,15 +121,16 @@ public class AlbumService {
             return List.of();
         }
 
+        Map<String, String> urlsAssinadas = minioService.generatePresignedUrls30Min(capas.stream()
+                .map(AlbumCapaModel::getChaveObjeto)
+                .filter(chave -> chave != null)
+                .distinct()
+                .toList());
+
         List<AlbumCapaDTO> dtos = new java.util.ArrayList<>();
         for (AlbumCapaModel capa : capas) {
-            String urlAssinada = null;
-            try {
-                urlAssinada = minioService.generatePresignedUrl30Min(capa.getChaveObjeto());
-            } catch (Exception e) {
-                urlAssinada = null;
-            }
-            dtos.add(new AlbumCapaDTO(capa.getIdCapa(), capa.getChaveObjeto(), urlAssinada, capa.isPrincipal()));
+            String urlAssinada = capa.getChaveObjeto() == null ? null : urlsAssinadas.get(capa.getChaveObjeto());
+            dtos.add(new AlbumCapaDTO(capa.getIdCapa(), capa.getChaveObjeto(), urlAssinada, capa.isPrincipal(), capa.getPlaceholder()));
         }
         return dtos;
     }
@@ -166,29 +202,62 @@ public class AlbumService {
         if (!albumRepository.existsById(idAlbum)) {
             throw new ResourceNotFoundException("Álbum não encontrado. idAlbum=" + idAlbum);
         }
+        List<String> chaves = albumRepository.findChavesCapas(idAlbum);
         albumRepository.deleteById(idAlbum);
+        conteudoImagem.liberar(chaves);
         enviarAtualizacao("deleted", idAlbum);
     }
 
     public Page<AlbumDTO> obterAlbunsPorArtista(Long idArtista, Pageable paginacao) {
+        return obterAlbunsPorArtista(idArtista, paginacao, CamposResposta.completo());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AlbumDTO> obterAlbunsPorArtista(Long idArtista, Pageable paginacao, CamposResposta campos) {
         Page<AlbumModel> albuns = albumRepository.findByArtistaIdOrderByTitulo(idArtista, paginacao);
-        return albuns.map(this::converterParaDTO);
+        CapasPagina capas = resolverCapas(albuns.getContent(), campos);
+        return albuns.map(album -> converterParaDTO(album, campos, capas));
     }
 
     public Page<AlbumDTO> listarTodosAlbuns(Pageable paginacao, String direcaoOrdenacao) {
+        return listarTodosAlbuns(paginacao, direcaoOrdenacao, CamposResposta.completo());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AlbumDTO> listarTodosAlbuns(Pageable paginacao, String direcaoOrdenacao, CamposResposta campos) {
         Sort sort = Sort.by("tituloAlbum");
         sort = "desc".equalsIgnoreCase(direcaoOrdenacao) ? sort.descending() : sort.ascending();
         Pageable pageable = PageRequest.of(paginacao.getPageNumber(), paginacao.getPageSize(), sort);
         Page<AlbumModel> albuns = albumRepository.findAll(pageable);
-        return albuns.map(this::converterParaDTO);
+        CapasPagina capas = resolverCapas(albuns.getContent(), campos);
+        return albuns.map(album -> converterParaDTO(album, campos, capas));
     }
 
     @Transactional(readOnly = true)
     public List<AlbumDTO> listarTodosAlbunsNovo() {
-        return albumRepository.findAll(Sort.by("tituloAlbum").ascending())
-                .stream()
-                .map(this::converterParaDTO)
-                .toList();
+        return converterLista(albumRepository.findAll(Sort.by("tituloAlbum").ascending()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AlbumDTO> listarAlteradosDesde(LocalDateTime desde) {
+        return converterLista(albumRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde));
+    }
+
+    @Transactional(readOnly = true)
+    public void percorrerTodosAlbuns(Consumer<AlbumDTO> consumidor) {
+        // Em lotes, como uma página: capas principais e URLs assinadas do lote em uma consulta cada,
+        // sem carregar a coleção de capas álbum a álbum
+        List<AlbumModel> lote = new ArrayList<>(LOTE_STREAM);
+        try (Stream<AlbumModel> albuns = albumRepository.streamAllOrderByTitulo()) {
+            albuns.forEach(album -> {
+                lote.add(album);
+                if (lote.size() == LOTE_STREAM) {
+                    converterLista(lote).forEach(consumidor);
+                    lote.clear();
+                }
+            });
+        }
+        converterLista(lote).forEach(consumidor);
     }
 
     public List<AlbumDTO> obterTodosAlbunsPorArtista(Long idArtista, String direcaoOrdenacao) {
@@ -198,9 +267,7 @@ public class AlbumService {
         } else {
             albuns = albumRepository.findByArtistaIdOrderByTituloAsc(idArtista);
         }
-        return albuns.stream()
-                .map(this::converterParaDTO)
-                .collect(Collectors.toList());
+        return converterLista(albuns);
     }
 
 
@@ -208,29 +275,21 @@ public class AlbumService {
         AlbumModel albumModel = albumRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Álbum não encontrado com id: " + id));
 
-        // Delete cover image from MinIO if exists
-        if (albumModel.getCapas() != null) {
-            albumModel.getCapas().forEach((capa) -> {
-                if (capa.getChaveObjeto() == null) return;
-                try {
-                    minioService.deleteFile(capa.getChaveObjeto());
-                } catch (Exception e) {
-                    // Log error but don't fail the operation
-                    System.err.println("Failed to delete cover image: " + e.getMessage());
-                }
-            });
-        }
-
+        List<String> chaves = chavesCapas(albumModel);
         albumRepository.delete(albumModel);
+        // Objetos sem outras referências só saem do MinIO depois do commit, fora da conexão
+        conteudoImagem.liberar(chaves);
         enviarAtualizacao("deleted", id);
     }
 
-    public AlbumDTO fazerUploadImagemCapa(Long idAlbum, byte[] dadosImagem, String nomeArquivo, String tipoConteudo) {
-        return salvarCapas(idAlbum, List.of(new UploadCapa(nomeArquivo, dadosImagem, tipoConteudo)), true);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlbumDTO fazerUploadImagemCapa(Long idAlbum, UploadCapa arquivo) {
+        return salvarCapas(idAlbum, List.of(arquivo), true);
     }
 
-    public AlbumDTO attImagemCapa(Long idAlbum, byte[] dadosImagem, String nomeArquivo, String tipoConteudo) {
-        return salvarCapas(idAlbum, List.of(new UploadCapa(nomeArquivo, dadosImagem, tipoConteudo)), true);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlbumDTO attImagemCapa(Long idAlbum, UploadCapa arquivo) {
+        return salvarCapas(idAlbum, List.of(arquivo), true);
     }
 
     @Transactional
@@ -260,53 +319,230 @@ public class AlbumService {
         enviarAtualizacao("cover-principal-updated", idAlbum);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AlbumDTO adicionarCapas(Long idAlbum, List<UploadCapa> arquivos) {
         return salvarCapas(idAlbum, arquivos, false);
     }
 
-    private AlbumDTO salvarCapas(Long idAlbum, List<UploadCapa> arquivos, boolean substituir) {
+    /*
+     * Em duas fases, sem transação aberta durante o I/O do MinIO (um MinIO lento não segura conexões do pool):
+     * 1) calcula o SHA-256 e o placeholder de cada arquivo e envia em paralelo só os conteúdos que o bucket ainda
+     *    não tem;
+     * 2) grava os metadados numa transação curta; as capas substituídas que ficarem sem referência saem do MinIO
+     *    só depois do commit.
+     * Se a transação falhar, os objetos recém-enviados que ninguém registrou são removidos.
+     * O original é guardado sem EXIF (GPS), XMP e comentários: cada leitura do arquivo passa pelo filtro.
+     */
+    private AlbumDTO salvarCapas(Long idAlbum, List<UploadCapa> recebidos, boolean substituir) {
+        if (!albumRepository.existsById(idAlbum)) {
+            throw new ResourceNotFoundException("Álbum não encontrado com id: " + idAlbum);
+        }
+        List<UploadCapa> arquivos = recebidos.stream().map(AlbumService::semMetadados).toList();
+
+        // Hash e tamanho (já sem metadados) saem de uma leitura do arquivo temporário do multipart; com o hash, uma
+        // cópia já armazenada nem é enviada
+        List<ConteudoImagemService.Conteudo> conteudos = new ArrayList<>();
+        for (UploadCapa arquivo : arquivos) {
+            try (InputStream dados = arquivo.fonte().abrir()) {
+                conteudos.add(ConteudoImagemService.Conteudo.ler(dados, arquivo.tipoConteudo()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to upload cover image", e);
+            }
+        }
+        // Um placeholder por conteúdo distinto, gravado em todas as capas que o usam
+        Map<String, String> placeholders = new HashMap<>();
+        for (int i = 0; i < arquivos.size(); i++) {
+            String hash = conteudos.get(i).hash();
+            if (!placeholders.containsKey(hash)) {
+                placeholders.put(hash, gerarPlaceholder(arquivos.get(i)));
+            }
+        }
+        Set<String> armazenados = conteudoImagem.armazenados(
+                conteudos.stream().map(ConteudoImagemService.Conteudo::hash).toList());
+
+        // Cada envio vai direto do stream (pico de memória: um buffer de parte por envio simultâneo), uma vez por hash.
+        // Se um falhar, os já enviados são removidos e as capas antigas continuam intactas.
+        Map<String, TransferenciaImagensService.Envio> envios = new LinkedHashMap<>();
+        for (int i = 0; i < arquivos.size(); i++) {
+            ConteudoImagemService.Conteudo conteudo = conteudos.get(i);
+            UploadCapa arquivo = arquivos.get(i);
+            if (!armazenados.contains(conteudo.hash())) {
+                envios.putIfAbsent(conteudo.hash(), new TransferenciaImagensService.Envio(
+                        conteudo.chave(), conteudo.tamanho(), arquivo.tipoConteudo(), arquivo.fonte()::abrir));
+            }
+        }
+        try {
+            transferenciaImagens.enviarTodos(new ArrayList<>(envios.values()));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to upload cover image", e);
+        }
+
+        try {
+            return transacao.execute(status -> registrarCapas(idAlbum, conteudos, placeholders, envios.keySet(), substituir));
+        } catch (RuntimeException e) {
+            conteudoImagem.descartarNaoRegistrados(
+                    envios.values().stream().map(TransferenciaImagensService.Envio::chave).toList());
+            throw e;
+        }
+    }
+
+    private AlbumDTO registrarCapas(Long idAlbum, List<ConteudoImagemService.Conteudo> conteudos,
+                                    Map<String, String> placeholders, Set<String> enviados, boolean substituir) {
         AlbumModel albumModel = albumRepository.findById(idAlbum)
                 .orElseThrow(() -> new ResourceNotFoundException("Álbum não encontrado com id: " + idAlbum));
 
-        try {
-            if (substituir && albumModel.getCapas() != null) {
-                albumModel.getCapas().forEach((capa) -> {
-                    if (capa.getChaveObjeto() == null) return;
-                    try {
-                        minioService.deleteFile(capa.getChaveObjeto());
-                    } catch (Exception e) {
-                        System.err.println("Failed to delete cover image: " + e.getMessage());
-                    }
-                });
-                albumModel.getCapas().clear();
-            }
+        conteudos.stream().distinct().forEach(conteudo -> conteudoImagem.reservar(conteudo, enviados.contains(conteudo.hash())));
 
-            for (UploadCapa arquivo : arquivos) {
-                String chaveObjeto = "album-covers/" + idAlbum + "/" + arquivo.nomeArquivo();
-                minioService.uploadFile(chaveObjeto, arquivo.dadosImagem(), arquivo.tipoConteudo());
-                AlbumCapaModel capa = new AlbumCapaModel(albumModel, chaveObjeto);
-                if (albumModel.getCapas().isEmpty()) {
-                    capa.setPrincipal(true);
-                }
-                albumModel.getCapas().add(capa);
+        List<String> substituidas = List.of();
+        if (substituir && albumModel.getCapas() != null) {
+            substituidas = chavesCapas(albumModel);
+            albumModel.getCapas().clear();
+        }
+
+        for (ConteudoImagemService.Conteudo conteudo : conteudos) {
+            String chaveObjeto = conteudo.chave();
+            AlbumCapaModel capa = new AlbumCapaModel(albumModel, chaveObjeto);
+            capa.setPlaceholder(placeholders.get(conteudo.hash()));
+            // Conteúdo repetido: as miniaturas da primeira cópia servem
+            if (albumCapaRepository.existsByChaveObjetoAndDerivadosTrue(chaveObjeto)) {
+                capa.setDerivados(true);
+            } else {
+                derivadosImagem.gerarDoArmazenamento(chaveObjeto, () -> albumCapaRepository.marcarDerivados(chaveObjeto));
             }
+            if (albumModel.getCapas().isEmpty()) {
+                capa.setPrincipal(true);
+            }
+            albumModel.getCapas().add(capa);
+        }
 
-            AlbumModel salvo = albumRepository.save(albumModel);
-            enviarAtualizacao("cover-updated", idAlbum);
+        AlbumModel salvo = albumRepository.save(albumModel);
+        conteudoImagem.liberar(substituidas);
+        enviarAtualizacao("cover-updated", idAlbum);
 
-            return converterParaDTO(salvo);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to upload cover image", e);
+        return converterParaDTO(salvo);
+    }
+
+    // Formato sem decodificador (ex.: WebP) ou arquivo corrompido: a capa só fica sem placeholder
+    private static UploadCapa semMetadados(UploadCapa arquivo) {
+        return new UploadCapa(arquivo.nomeArquivo(), arquivo.tamanho(), arquivo.tipoConteudo(),
+                () -> MetadadosImagem.semMetadados(arquivo.fonte().abrir(), arquivo.tipoConteudo()));
+    }
+
+    private static String gerarPlaceholder(UploadCapa arquivo) {
+        try (InputStream dados = arquivo.fonte().abrir()) {
+            return DerivadosImagemService.gerarPlaceholder(dados);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static List<String> chavesCapas(AlbumModel album) {
+        if (album.getCapas() == null) {
+            return List.of();
+        }
+        return album.getCapas().stream()
+                .map(AlbumCapaModel::getChaveObjeto)
+                .filter(chave -> chave != null)
+                .toList();
+    }
+
+    public static String prefixoCapas(Long idAlbum) {
+        return "album-covers/" + idAlbum + "/";
+    }
+
+    /**
+     * Registra uma capa que o cliente já enviou direto ao MinIO (ver {@code UploadDiretoService}).
+     * Confirmar a mesma chave de novo não duplica a capa.
+     */
+    public AlbumDTO registrarCapaEnviada(Long idAlbum, String chaveObjeto) {
+        AlbumModel albumModel = albumRepository.findById(idAlbum)
+                .orElseThrow(() -> new ResourceNotFoundException("Álbum não encontrado com id: " + idAlbum));
+
+        boolean jaRegistrada = albumModel.getCapas().stream()
+                .anyMatch(capa -> chaveObjeto.equals(capa.getChaveObjeto()));
+        if (jaRegistrada) {
+            return converterParaDTO(albumModel);
+        }
+
+        AlbumCapaModel capa = new AlbumCapaModel(albumModel, chaveObjeto);
+        if (albumModel.getCapas().isEmpty()) {
+            capa.setPrincipal(true);
         }
+        albumModel.getCapas().add(capa);
+        AlbumModel salvo = albumRepository.save(albumModel);
+        derivadosImagem.gerarDoArmazenamento(chaveObjeto, () -> albumCapaRepository.marcarDerivados(chaveObjeto));
+        enviarAtualizacao("cover-updated", idAlbum);
+        return converterParaDTO(salvo);
     }
 
-    public record UploadCapa(String nomeArquivo, byte[] dadosImagem, String tipoConteudo) {}
+    public record UploadCapa(String nomeArquivo, long tamanho, String tipoConteudo, FonteArquivo fonte) {}
+
+    @FunctionalInterface
+    public interface FonteArquivo {
+        InputStream abrir() throws IOException;
+    }
 
     private void enviarAtualizacao(String acao, Long idAlbum) {
-        messagingTemplate.convertAndSend("/topic/updates", new UpdateMessage("album", acao, idAlbum));
+        UpdateMessage mensagem = new UpdateMessage("album", acao, idAlbum);
+        messagingTemplate.convertAndSend("/topic/updates", mensagem);
+        eventPublisher.publishEvent(mensagem);
     }
 
     private AlbumDTO converterParaDTO(AlbumModel album) {
+        return converterParaDTO(album, CamposResposta.completo(), null);
+    }
+
+    private List<AlbumDTO> converterLista(List<AlbumModel> albuns) {
+        CamposResposta campos = CamposResposta.completo();
+        CapasPagina capas = resolverCapas(albuns, campos);
+        return albuns.stream()
+                .map(album -> converterParaDTO(album, campos, capas))
+                .toList();
+    }
+
+    /*
+     * Capa principal de todos os álbuns da lista em uma consulta e as URLs assinadas em lote
+     * (as já assinadas saem do cache do MinioService), sem tocar a coleção lazy de cada álbum.
+     */
+    private CapasPagina resolverCapas(List<AlbumModel> albuns, CamposResposta campos) {
+        boolean incluiCapa = campos.incluiCampo("urlImagemCapa") || campos.incluiCampo("urlImagemCapaAssinada")
+                || campos.incluiCampo("placeholderCapa");
+        if (!incluiCapa || albuns.isEmpty()) {
+            return new CapasPagina(Map.of(), Map.of(), Map.of());
+        }
+        List<Long> ids = albuns.stream().map(AlbumModel::getIdAlbum).toList();
+        Map<Long, String> chaves = new HashMap<>();
+        Map<Long, String> placeholders = new HashMap<>();
+        for (Object[] linha : albumRepository.findChavesCapaPrincipal(ids)) {
+            Long idAlbum = ((Number) linha[0]).longValue();
+            chaves.put(idAlbum,
+                    DerivadosImagemService.chaveEntrega((String) linha[1], Boolean.TRUE.equals(linha[2]), campos.tamanhoImagem()));
+            if (linha[3] != null) {
+                placeholders.put(idAlbum, (String) linha[3]);
+            }
+        }
+        Map<String, String> urlsAssinadas = campos.incluiCampo("urlImagemCapaAssinada")
+                ? minioService.generatePresignedUrls30Min(chaves.values().stream()
+                        .filter(chave -> chave != null && !chave.isBlank())
+                        .distinct()
+                        .toList())
+                : Map.of();
+        return new CapasPagina(chaves, placeholders, urlsAssinadas);
+    }
+
+    private record CapasPagina(Map<Long, String> chaves, Map<Long, String> placeholders, Map<String, String> urlsAssinadas) {}
+
+    private AlbumCapaModel capaPrincipal(AlbumModel album) {
+        if (album.getCapas() == null || album.getCapas().isEmpty()) {
+            return null;
+        }
+        return album.getCapas().stream()
+                .filter(AlbumCapaModel::isPrincipal)
+                .findFirst()
+                .orElse(album.getCapas().get(0));
+    }
+
+    private AlbumDTO converterParaDTO(AlbumModel album, CamposResposta campos, CapasPagina capas) {
         AlbumDTO dto = new AlbumDTO();
 
         dto.setId(album.getIdAlbum());
@@ -316,24 +552,34 @@ public class AlbumService {
         dto.setDataCriacao(album.getDataCriacao());
         dto.setDataAtualizacao(album.getDataAtualizacao());
 
+        // Sem os campos de capa não há consulta às capas nem assinatura no MinIO
+        boolean incluiCapa = campos.incluiCampo("urlImagemCapa") || campos.incluiCampo("urlImagemCapaAssinada")
+                || campos.incluiCampo("placeholderCapa");
         String capaPrincipal = null;
-        if (album.getCapas() != null && !album.getCapas().isEmpty()) {
-            AlbumCapaModel principal = album.getCapas().stream()
-                    .filter(AlbumCapaModel::isPrincipal)
-                    .findFirst()
-                    .orElse(album.getCapas().get(0));
-            capaPrincipal = principal.getChaveObjeto();
+        String placeholder = null;
+        if (incluiCapa && capas != null) {
+            capaPrincipal = capas.chaves().get(album.getIdAlbum());
+            placeholder = capas.placeholders().get(album.getIdAlbum());
+        } else if (incluiCapa) {
+            AlbumCapaModel principal = capaPrincipal(album);
+            capaPrincipal = principal != null ? principal.getChaveObjeto() : null;
+            placeholder = principal != null ? principal.getPlaceholder() : null;
         }
         if (capaPrincipal != null && !capaPrincipal.isBlank()) {
             String basePath = "/v1/albums/" + album.getIdAlbum();
             dto.setUrlImagemCapa(basePath + "/capa");
-            try {
-                dto.setUrlImagemCapaAssinada(
-                        minioService.generatePresignedUrl30Min(capaPrincipal)
-                );
-            } catch (Exception e) {
-//                dto.setUrlImagemCapaAssinada(basePath + "/capa/url");
-                dto.setUrlImagemCapaAssinada(null);
+            dto.setPlaceholderCapa(placeholder);
+            if (capas != null) {
+                dto.setUrlImagemCapaAssinada(capas.urlsAssinadas().get(capaPrincipal));
+            } else if (campos.incluiCampo("urlImagemCapaAssinada")) {
+                try {
+                    dto.setUrlImagemCapaAssinada(
+                            minioService.generatePresignedUrl30Min(capaPrincipal)
+                    );
+                } catch (Exception e) {
+//                    dto.setUrlImagemCapaAssinada(basePath + "/capa/url");
+                    dto.setUrlImagemCapaAssinada(null);
+                }
             }
         }
 
@@ -4,21 +4,29 @@ import com.seplag.artistalbum.domain.artista.dto.ArtistaDTO;
 import com.seplag.artistalbum.domain.artista.dto.ArtistaRequestDTO;
 import com.seplag.artistalbum.domain.artista.dto.ArtistaResponseDTO;
 import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
+import com.seplag.artistalbum.shared.dto.UploadConfirmacaoRequestDTO;
+import com.seplag.artistalbum.shared.dto.UploadIntencaoDTO;
+import com.seplag.artistalbum.shared.dto.UploadIntencaoRequestDTO;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.ImagemStreamService;
+import com.seplag.artistalbum.shared.service.UploadDiretoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -29,9 +37,14 @@ public class ArtistaResource {
 
     @Autowired
     private final ArtistaService artistaService;
+    private final ImagemStreamService imagemStreamService;
+    private final UploadDiretoService uploadDiretoService;
 
-    public ArtistaResource(ArtistaService artistaService) {
+    public ArtistaResource(ArtistaService artistaService, ImagemStreamService imagemStreamService,
+                           UploadDiretoService uploadDiretoService) {
         this.artistaService = artistaService;
+        this.imagemStreamService = imagemStreamService;
+        this.uploadDiretoService = uploadDiretoService;
     }
 
     /* CREATE */
@@ -78,13 +91,14 @@ public class ArtistaResource {
             @Parameter(description = "ID do artista") @PathVariable Long idArtista,
             @Parameter(description = "Arquivo da foto") @RequestParam("arquivo") MultipartFile arquivo) {
         try {
-            String tipoConteudo = arquivo.getContentType();
-            if (tipoConteudo == null || !tipoConteudo.startsWith("image/")) {
+            byte[] dados = arquivo.getBytes();
+            String tipoConteudo = DerivadosImagemService.detectarTipo(dados);
+            if (tipoConteudo == null) {
                 return ResponseEntity.badRequest().build();
             }
             ArtistaResponseDTO dto = artistaService.atualizarFotoArtista(
                     idArtista,
-                    arquivo.getBytes(),
+                    dados,
                     arquivo.getOriginalFilename(),
                     tipoConteudo
             );
@@ -94,16 +108,35 @@ public class ArtistaResource {
         }
     }
 
+    @PostMapping("/{idArtista}/foto/intencao-upload")
+    @Operation(summary = "Obter URL assinada para enviar a foto direto ao armazenamento")
+    public ResponseEntity<UploadIntencaoDTO> criarIntencaoUploadFoto(
+            @Parameter(description = "ID do artista") @PathVariable Long idArtista,
+            @Valid @RequestBody UploadIntencaoRequestDTO request) throws Exception {
+        artistaService.obterArtistaPorId(idArtista);
+        return ResponseEntity.ok(uploadDiretoService.criarIntencao(ArtistaService.prefixoFoto(idArtista), request));
+    }
+
+    @PostMapping("/{idArtista}/foto/confirmar-upload")
+    @Operation(summary = "Confirmar foto enviada pela URL assinada")
+    public ResponseEntity<ArtistaResponseDTO> confirmarUploadFoto(
+            @Parameter(description = "ID do artista") @PathVariable Long idArtista,
+            @Valid @RequestBody UploadConfirmacaoRequestDTO request) throws Exception {
+        String tipoConteudo = uploadDiretoService.confirmar(ArtistaService.prefixoFoto(idArtista), request.getChaveObjeto());
+        return ResponseEntity.ok(artistaService.registrarFotoEnviada(idArtista, request.getChaveObjeto(), tipoConteudo));
+    }
+
     @GetMapping("/{idArtista}/foto")
     @Operation(summary = "Obter foto do artista")
-    public ResponseEntity<Resource> obterFoto(@Parameter(description = "ID do artista") @PathVariable Long idArtista) {
+    public ResponseEntity<StreamingResponseBody> obterFoto(
+            @Parameter(description = "ID do artista") @PathVariable Long idArtista,
+            @Parameter(description = "Lado maior desejado em px (usa a miniatura 64/256/1024 quando existir)") @RequestParam(required = false) Integer size,
+            WebRequest requisicao) {
         try {
             ArtistaService.FotoArtista foto = artistaService.obterFotoArtista(idArtista);
-            ByteArrayResource recurso = new ByteArrayResource(foto.dados());
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(foto.tipoConteudo()))
-                    .contentLength(foto.dados().length)
-                    .body(recurso);
+            String chave = DerivadosImagemService.chaveEntrega(foto.chave(), foto.derivados(), size);
+            String tipoConteudo = chave.equals(foto.chave()) ? foto.tipoConteudo() : "image/jpeg";
+            return imagemStreamService.entregar(chave, tipoConteudo, requisicao);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -118,26 +151,34 @@ public class ArtistaResource {
 
     @GetMapping("/pesquisa")
     @Operation(summary = "Pesquisar artistas por nome")
-    public ResponseEntity<Page<ArtistaDTO>> pesquisarArtistas(
+    public ResponseEntity<MappingJacksonValue> pesquisarArtistas(
             @Parameter(description = "Termo de pesquisa") @RequestParam String nome,
             @Parameter(description = "Número da página (baseado em 0)") @RequestParam(defaultValue = "0") int pagina,
-            @Parameter(description = "Número de itens por página") @RequestParam(defaultValue = "10") int tamanho) {
+            @Parameter(description = "Número de itens por página") @RequestParam(defaultValue = "10") int tamanho,
+            @Parameter(description = "Campos do artista a retornar (ex.: id,nome)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Associações a carregar (albuns,bandas); vazio para nenhuma") @RequestParam(required = false) String expand,
+            @Parameter(description = "Lado maior das capas dos álbuns em px (miniatura 64/256/1024)") @RequestParam(required = false) Integer size) {
 
         Pageable paginacao = PageRequest.of(pagina, tamanho);
-        Page<ArtistaDTO> artistas = artistaService.pesquisarArtistas(nome, paginacao);
-        return ResponseEntity.ok(artistas);
+        CamposResposta campos = CamposResposta.de(fields, expand).comTamanhoImagem(size);
+        Page<ArtistaDTO> artistas = artistaService.pesquisarArtistas(nome, paginacao, campos);
+        return ResponseEntity.ok(campos.aplicar(artistas, CamposResposta.FILTRO_ARTISTA));
     }
 
     @GetMapping("/all")
     @Operation(summary = "Listar todos os artistas com paginação e ordenação")
-    public ResponseEntity<Page<ArtistaDTO>> obterTodosArtistas(
+    public ResponseEntity<MappingJacksonValue> obterTodosArtistas(
             @Parameter(description = "Número da página (baseado em 0)") @RequestParam(defaultValue = "0") int pagina,
             @Parameter(description = "Número de itens por página") @RequestParam(defaultValue = "10") int tamanho,
-            @Parameter(description = "Direção da ordenação (asc ou desc)") @RequestParam(defaultValue = "asc") String ordenacao) {
+            @Parameter(description = "Direção da ordenação (asc ou desc)") @RequestParam(defaultValue = "asc") String ordenacao,
+            @Parameter(description = "Campos do artista a retornar (ex.: id,nome)") @RequestParam(required = false) String fields,
+            @Parameter(description = "Associações a carregar (albuns,bandas); vazio para nenhuma") @RequestParam(required = false) String expand,
+            @Parameter(description = "Lado maior das capas dos álbuns em px (miniatura 64/256/1024)") @RequestParam(required = false) Integer size) {
 
         Pageable paginacao = PageRequest.of(pagina, tamanho);
-        Page<ArtistaDTO> artistas = artistaService.obterTodosArtistas(paginacao, ordenacao);
-        return ResponseEntity.ok(artistas);
+        CamposResposta campos = CamposResposta.de(fields, expand).comTamanhoImagem(size);
+        Page<ArtistaDTO> artistas = artistaService.obterTodosArtistas(paginacao, ordenacao, campos);
+        return ResponseEntity.ok(campos.aplicar(artistas, CamposResposta.FILTRO_ARTISTA));
     }
 
 }
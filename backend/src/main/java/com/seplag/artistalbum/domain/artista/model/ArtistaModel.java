@@ -4,6 +4,7 @@ import com.seplag.artistalbum.domain.album.model.AlbumModel;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,6 +14,7 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+@BatchSize(size = 200)
 @Table(name = "artista",
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_artista_nomeArtista", columnNames = "nomeArtista")
@@ -35,6 +37,9 @@ public class ArtistaModel {
     @Column(name = "fotoArtistaContentType")
     private String fotoArtistaContentType;
 
+    @Column(name = "fotoDerivados", nullable = false)
+    private boolean fotoDerivados = false;
+
     @OneToMany(mappedBy = "artista", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<AlbumModel> albuns = new ArrayList<>();
 
@@ -98,6 +103,14 @@ public class ArtistaModel {
         this.fotoArtistaContentType = fotoArtistaContentType;
     }
 
+    public boolean isFotoDerivados() {
+        return fotoDerivados;
+    }
+
+    public void setFotoDerivados(boolean fotoDerivados) {
+        this.fotoDerivados = fotoDerivados;
+    }
+
     public List<AlbumModel> getAlbuns() {
         return albuns;
     }
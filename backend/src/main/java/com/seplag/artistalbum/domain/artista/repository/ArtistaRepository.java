@@ -1,22 +1,42 @@
 package com.seplag.artistalbum.domain.artista.repository;
 
 import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ArtistaRepository extends JpaRepository<ArtistaModel, Long> {
 
     Optional<ArtistaModel> findByNomeArtista(String nomeArtista);
 
+    // Só marca se a foto ainda é a mesma chave (uma troca no meio da geração fica sem derivados)
+    @Modifying
+    @Transactional
+    @Query("UPDATE ArtistaModel a SET a.fotoDerivados = true WHERE a.idArtista = :idArtista AND a.fotoArtista = :chave")
+    int marcarFotoDerivados(@Param("idArtista") Long idArtista, @Param("chave") String chave);
+
+    boolean existsByFotoArtistaAndFotoDerivadosTrue(String fotoArtista);
+
+    @Query("SELECT a.fotoArtista FROM ArtistaModel a WHERE a.fotoArtista IN :chaves")
+    List<String> findFotosExistentes(@Param("chaves") Collection<String> chaves);
+
     boolean existsByNomeArtista(String nomeArtista);
 
     boolean existsByNomeArtistaIgnoreCase(String nomeArtista);
@@ -39,4 +59,11 @@ public interface ArtistaRepository extends JpaRepository<ArtistaModel, Long> {
 
     @Query("SELECT a FROM ArtistaModel a ORDER BY a.nomeArtista DESC")
     Page<ArtistaModel> findAllOrderByNomeDesc(Pageable pageable);
+
+    List<ArtistaModel> findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(LocalDateTime desde);
+
+    // Leitura em cursor para o catálogo em streaming (não materializa a lista inteira)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT a FROM ArtistaModel a ORDER BY a.nomeArtista ASC")
+    Stream<ArtistaModel> streamAllOrderByNome();
 }
@@ -12,9 +12,14 @@ import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
 import com.seplag.artistalbum.domain.banda.dto.BandaResumoDTO;
 import com.seplag.artistalbum.domain.banda.model.BandaArtistaModel;
 import com.seplag.artistalbum.domain.banda.repository.BandaArtistaRepository;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
 import com.seplag.artistalbum.shared.exception.ResourceNotFoundException;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.MetadadosImagem;
 import com.seplag.artistalbum.shared.service.MinioService;
 import com.seplag.artistalbum.shared.websocket.UpdateMessage;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,10 +27,20 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -35,18 +50,30 @@ public class ArtistaService {
     private final AlbumRepository albumRepository;
     private final BandaArtistaRepository bandaArtistaRepository;
     private final MinioService minioService;
+    private final DerivadosImagemService derivadosImagem;
+    private final ConteudoImagemService conteudoImagem;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transacao;
 
     public ArtistaService(ArtistaRepository artistaRepository,
                           AlbumRepository albumRepository,
                           BandaArtistaRepository bandaArtistaRepository,
                           MinioService minioService,
-                          SimpMessagingTemplate messagingTemplate) {
+                          DerivadosImagemService derivadosImagem,
+                          ConteudoImagemService conteudoImagem,
+                          SimpMessagingTemplate messagingTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          TransactionTemplate transacao) {
         this.artistaRepository = artistaRepository;
         this.albumRepository = albumRepository;
         this.bandaArtistaRepository = bandaArtistaRepository;
         this.minioService = minioService;
+        this.derivadosImagem = derivadosImagem;
+        this.conteudoImagem = conteudoImagem;
         this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transacao = transacao;
     }
 
     @Transactional
@@ -87,6 +114,29 @@ public class ArtistaService {
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public List<ArtistaResponseDTO> listarAlteradosDesde(LocalDateTime desde) {
+        return artistaRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde)
+                .stream()
+                .map(artista -> {
+                    ArtistaResponseDTO dto = ArtistaMapper.toResponseDTO(artista);
+                    preencherUrlFoto(dto, artista);
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public void percorrerTodos(Consumer<ArtistaResponseDTO> consumidor) {
+        try (Stream<ArtistaModel> artistas = artistaRepository.streamAllOrderByNome()) {
+            artistas.forEach(artista -> {
+                ArtistaResponseDTO dto = ArtistaMapper.toResponseDTO(artista);
+                preencherUrlFoto(dto, artista);
+                consumidor.accept(dto);
+            });
+        }
+    }
+
     @Transactional(readOnly = true)
     public Page<ArtistaResponseDTO> listarPaginado(int page, int size, String sortDir) {
         Sort sort = Sort.by("nomeArtista");
@@ -122,36 +172,100 @@ public class ArtistaService {
         return dto;
     }
 
-    @Transactional
-    public ArtistaResponseDTO atualizarFotoArtista(Long idArtista, byte[] dados, String nomeArquivo, String tipoConteudo) {
-        ArtistaModel artista = artistaRepository.findById(idArtista)
-                .orElseThrow(() -> new ResourceNotFoundException("Artista não encontrado. idArtista=" + idArtista));
+    /**
+     * A chave é o SHA-256 da foto: se o bucket já tem o mesmo conteúdo (ex.: a mesma foto em outro artista), nada é
+     * enviado. O envio acontece sem transação aberta e só então a referência é trocada numa transação curta; a foto
+     * anterior, se ficar sem referências, sai do MinIO depois do commit. Se a transação falhar, a foto enviada é removida.
+     * A foto é guardada sem EXIF (GPS), XMP e comentários; o hash é o do conteúdo já filtrado.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ArtistaResponseDTO atualizarFotoArtista(Long idArtista, byte[] recebidos, String nomeArquivo, String tipoConteudo) {
+        if (!artistaRepository.existsById(idArtista)) {
+            throw new ResourceNotFoundException("Artista não encontrado. idArtista=" + idArtista);
+        }
+
+        byte[] dados;
+        try {
+            dados = MetadadosImagem.semMetadados(recebidos, tipoConteudo);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao salvar foto do artista.", e);
+        }
 
-        String extensao = "";
-        if (nomeArquivo != null && nomeArquivo.contains(".")) {
-            extensao = nomeArquivo.substring(nomeArquivo.lastIndexOf('.'));
+        ConteudoImagemService.Conteudo conteudo = ConteudoImagemService.Conteudo.de(
+                ConteudoImagemService.calcularHash(dados), dados.length, tipoConteudo);
+        String chaveObjeto = conteudo.chave();
+        boolean enviar = conteudoImagem.armazenados(List.of(conteudo.hash())).isEmpty();
+        if (enviar) {
+            try {
+                minioService.uploadFile(chaveObjeto, dados, tipoConteudo);
+            } catch (Exception e) {
+                throw new RuntimeException("Falha ao salvar foto do artista.", e);
+            }
         }
-        String chaveObjeto = "artist-covers/" + idArtista + "/foto" + extensao;
 
         try {
-            if (artista.getFotoArtista() != null && !artista.getFotoArtista().equals(chaveObjeto)) {
-                minioService.deleteFile(artista.getFotoArtista());
+            return transacao.execute(status -> {
+                conteudoImagem.reservar(conteudo, enviar);
+                ArtistaModel salvo = trocarFoto(idArtista, chaveObjeto, tipoConteudo);
+                if (!salvo.isFotoDerivados()) {
+                    // Conteúdo já usado por outro artista ou capa: as miniaturas geradas para ele servem
+                    if (artistaRepository.existsByFotoArtistaAndFotoDerivadosTrue(chaveObjeto)
+                            || albumRepository.existsCapaComDerivados(chaveObjeto)) {
+                        salvo.setFotoDerivados(true);
+                    } else {
+                        derivadosImagem.gerar(chaveObjeto, dados, () -> artistaRepository.marcarFotoDerivados(idArtista, chaveObjeto));
+                    }
+                }
+                ArtistaResponseDTO dto = ArtistaMapper.toResponseDTO(salvo);
+                preencherUrlFoto(dto, salvo);
+                return dto;
+            });
+        } catch (RuntimeException e) {
+            if (enviar) {
+                conteudoImagem.descartarNaoRegistrados(List.of(chaveObjeto));
             }
-            minioService.uploadFile(chaveObjeto, dados, tipoConteudo);
-        } catch (Exception e) {
-            throw new RuntimeException("Falha ao salvar foto do artista.", e);
+            throw e;
         }
+    }
 
-        artista.setFotoArtista(chaveObjeto);
-        artista.setFotoArtistaContentType(tipoConteudo);
-        ArtistaModel salvo = artistaRepository.save(artista);
-        enviarAtualizacao("updated", salvo.getIdArtista());
+    public static String prefixoFoto(Long idArtista) {
+        return "artist-covers/" + idArtista + "/";
+    }
 
+    /**
+     * Troca a foto por um objeto que o cliente já enviou direto ao MinIO (ver {@code UploadDiretoService}).
+     */
+    @Transactional
+    public ArtistaResponseDTO registrarFotoEnviada(Long idArtista, String chaveObjeto, String tipoConteudo) {
+        ArtistaModel salvo = trocarFoto(idArtista, chaveObjeto, tipoConteudo);
+        if (!salvo.isFotoDerivados()) {
+            derivadosImagem.gerarDoArmazenamento(chaveObjeto, () -> artistaRepository.marcarFotoDerivados(idArtista, chaveObjeto));
+        }
         ArtistaResponseDTO dto = ArtistaMapper.toResponseDTO(salvo);
         preencherUrlFoto(dto, salvo);
         return dto;
     }
 
+    // Chamado dentro de uma transação: a foto anterior (e suas miniaturas), se ficar sem referências, só é removida depois do commit
+    private ArtistaModel trocarFoto(Long idArtista, String chaveObjeto, String tipoConteudo) {
+        ArtistaModel artista = artistaRepository.findById(idArtista)
+                .orElseThrow(() -> new ResourceNotFoundException("Artista não encontrado. idArtista=" + idArtista));
+
+        String fotoAnterior = artista.getFotoArtista();
+        if (!chaveObjeto.equals(fotoAnterior)) {
+            artista.setFotoArtista(chaveObjeto);
+            artista.setFotoArtistaContentType(tipoConteudo);
+            // Até a nova geração terminar, size= entrega o original
+            artista.setFotoDerivados(false);
+        }
+        ArtistaModel salvo = artistaRepository.save(artista);
+        if (fotoAnterior != null && !fotoAnterior.equals(chaveObjeto)) {
+            conteudoImagem.liberar(List.of(fotoAnterior));
+        }
+        enviarAtualizacao("updated", salvo.getIdArtista());
+        return salvo;
+    }
+
     @Transactional(readOnly = true)
     public FotoArtista obterFotoArtista(Long idArtista) {
         ArtistaModel artista = artistaRepository.findById(idArtista)
@@ -162,22 +276,18 @@ public class ArtistaService {
             throw new ResourceNotFoundException("Foto do artista não encontrada. idArtista=" + idArtista);
         }
 
-        try {
-            byte[] dados = minioService.downloadFile(chave);
-            String tipoConteudo = artista.getFotoArtistaContentType();
-            if (tipoConteudo == null || tipoConteudo.isBlank()) {
-                tipoConteudo = "image/jpeg";
-                String lower = chave.toLowerCase();
-                if (lower.endsWith(".png")) {
-                    tipoConteudo = "image/png";
-                } else if (lower.endsWith(".gif")) {
-                    tipoConteudo = "image/gif";
-                }
+        // O conteúdo é lido em streaming pelo controller; aqui só chave e tipo
+        String tipoConteudo = artista.getFotoArtistaContentType();
+        if (tipoConteudo == null || tipoConteudo.isBlank()) {
+            tipoConteudo = "image/jpeg";
+            String lower = chave.toLowerCase();
+            if (lower.endsWith(".png")) {
+                tipoConteudo = "image/png";
+            } else if (lower.endsWith(".gif")) {
+                tipoConteudo = "image/gif";
             }
-            return new FotoArtista(dados, tipoConteudo);
-        } catch (Exception e) {
-            throw new ResourceNotFoundException("Foto do artista não encontrada. idArtista=" + idArtista);
         }
+        return new FotoArtista(chave, tipoConteudo, artista.isFotoDerivados());
     }
 
     @Transactional
@@ -185,26 +295,66 @@ public class ArtistaService {
         if (!artistaRepository.existsById(idArtista)) {
             throw new ResourceNotFoundException("Artista não encontrado. idArtista=" + idArtista);
         }
+        // Os álbuns e capas saem em cascata no banco; a contagem de referências acompanha (trigger)
+        List<String> chaves = new ArrayList<>(albumRepository.findChavesCapasPorArtista(idArtista));
+        artistaRepository.findById(idArtista).map(ArtistaModel::getFotoArtista).ifPresent(chaves::add);
         artistaRepository.deleteById(idArtista);
+        conteudoImagem.liberar(chaves);
         enviarAtualizacao("deleted", idArtista);
     }
 
     public Page<ArtistaDTO> pesquisarArtistas(String nome, Pageable paginacao) {
+        return pesquisarArtistas(nome, paginacao, CamposResposta.completo());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArtistaDTO> pesquisarArtistas(String nome, Pageable paginacao, CamposResposta campos) {
         Page<ArtistaModel> artistas = artistaRepository.findByNomeContainingIgnoreCase(nome, paginacao);
-        return artistas.map(this::converterParaDTO);
+        return converterPagina(artistas, campos);
     }
 
-    private ArtistaDTO converterParaDTO(ArtistaModel artista) {
-        List<AlbumDTO> albuns = albumRepository.findByArtista_IdArtistaOrderByTituloAlbumAsc(artista.getIdArtista())
-                .stream()
-                .map(this::converterAlbumParaDTO)
-                .toList();
-        List<BandaResumoDTO> bandas = buscarBandasPorArtista(artista.getIdArtista());
+    /*
+     * Associações são carregadas em lote para a página inteira e só quando pedidas
+     * (expand/fields): fields=id,nome custa uma única consulta e nenhuma assinatura no MinIO.
+     */
+    private Page<ArtistaDTO> converterPagina(Page<ArtistaModel> artistas, CamposResposta campos) {
+        List<Long> ids = artistas.getContent().stream().map(ArtistaModel::getIdArtista).toList();
+        if (ids.isEmpty()) {
+            return artistas.map(artista -> converterParaDTO(artista, null, null, null, campos));
+        }
+
+        Map<Long, List<AlbumDTO>> albunsPorArtista = campos.expande("albuns")
+                ? buscarAlbunsPorArtistas(ids, campos.tamanhoImagem())
+                : null;
+
+        Map<Long, Integer> quantidadePorArtista = albunsPorArtista == null && campos.incluiCampo("quantidadeAlbuns")
+                ? albumRepository.countByArtistaIds(ids).stream()
+                        .collect(Collectors.toMap(linha -> (Long) linha[0], linha -> ((Number) linha[1]).intValue()))
+                : null;
+
+        Map<Long, List<BandaResumoDTO>> bandasPorArtista = campos.expande("bandas")
+                ? buscarBandasPorArtistas(ids)
+                : null;
+
+        return artistas.map(artista -> converterParaDTO(artista, albunsPorArtista, quantidadePorArtista, bandasPorArtista, campos));
+    }
+
+    private ArtistaDTO converterParaDTO(ArtistaModel artista,
+                                        Map<Long, List<AlbumDTO>> albunsPorArtista,
+                                        Map<Long, Integer> quantidadePorArtista,
+                                        Map<Long, List<BandaResumoDTO>> bandasPorArtista,
+                                        CamposResposta campos) {
+        Long idArtista = artista.getIdArtista();
+        List<AlbumDTO> albuns = albunsPorArtista == null ? null : albunsPorArtista.getOrDefault(idArtista, List.of());
+        Integer quantidadeAlbuns = albuns != null
+                ? Integer.valueOf(albuns.size())
+                : quantidadePorArtista == null ? null : quantidadePorArtista.getOrDefault(idArtista, 0);
+        List<BandaResumoDTO> bandas = bandasPorArtista == null ? null : bandasPorArtista.getOrDefault(idArtista, List.of());
         ArtistaDTO dto = new ArtistaDTO(
-                artista.getIdArtista(),
+                idArtista,
                 artista.getNomeArtista(),
                 albuns,
-                albuns.size(),
+                quantidadeAlbuns,
                 artista.getDataCriacao(),
                 artista.getDataAtualizacao(),
                 bandas
@@ -213,17 +363,49 @@ public class ArtistaService {
         return dto;
     }
 
-    private List<BandaResumoDTO> buscarBandasPorArtista(Long idArtista) {
-        return bandaArtistaRepository.findByArtistaIdWithBanda(idArtista)
-                .stream()
-                .map(BandaArtistaModel::getBanda)
-                .filter(banda -> banda != null)
-                .map(banda -> new BandaResumoDTO(banda.getIdBanda(), banda.getNomeBanda()))
-                .sorted(Comparator.comparing(BandaResumoDTO::getNomeBanda, String.CASE_INSENSITIVE_ORDER))
-                .toList();
+    private Map<Long, List<BandaResumoDTO>> buscarBandasPorArtistas(List<Long> idsArtista) {
+        Map<Long, List<BandaResumoDTO>> bandasPorArtista = new HashMap<>();
+        for (BandaArtistaModel vinculo : bandaArtistaRepository.findByArtistaIdsWithBanda(idsArtista)) {
+            if (vinculo.getBanda() == null) {
+                continue;
+            }
+            bandasPorArtista.computeIfAbsent(vinculo.getId().getIdArtista(), id -> new ArrayList<>())
+                    .add(new BandaResumoDTO(vinculo.getBanda().getIdBanda(), vinculo.getBanda().getNomeBanda()));
+        }
+        bandasPorArtista.values().forEach(bandas ->
+                bandas.sort(Comparator.comparing(BandaResumoDTO::getNomeBanda, String.CASE_INSENSITIVE_ORDER)));
+        return bandasPorArtista;
+    }
+
+    private Map<Long, List<AlbumDTO>> buscarAlbunsPorArtistas(List<Long> idsArtista, Integer tamanhoImagem) {
+        List<AlbumModel> albuns = albumRepository.findByArtista_IdArtistaInOrderByTituloAlbumAsc(idsArtista);
+        if (albuns.isEmpty()) {
+            return Map.of();
+        }
+        // Capa principal dos álbuns em uma consulta, sem percorrer a coleção lazy de cada um
+        Map<Long, String> chavesCapa = new HashMap<>();
+        Map<Long, String> placeholders = new HashMap<>();
+        for (Object[] linha : albumRepository.findChavesCapaPrincipal(albuns.stream().map(AlbumModel::getIdAlbum).toList())) {
+            Long idAlbum = ((Number) linha[0]).longValue();
+            chavesCapa.put(idAlbum,
+                    DerivadosImagemService.chaveEntrega((String) linha[1], Boolean.TRUE.equals(linha[2]), tamanhoImagem));
+            if (linha[3] != null) {
+                placeholders.put(idAlbum, (String) linha[3]);
+            }
+        }
+        Map<String, String> urlsAssinadas = minioService.generatePresignedUrls30Min(chavesCapa.values().stream()
+                .filter(chave -> chave != null && !chave.isBlank())
+                .distinct()
+                .toList());
+        return albuns.stream()
+                .collect(Collectors.groupingBy(album -> album.getArtista().getIdArtista(),
+                        Collectors.mapping(album -> converterAlbumParaDTO(album, chavesCapa.get(album.getIdAlbum()),
+                                        placeholders.get(album.getIdAlbum()), urlsAssinadas),
+                                Collectors.toList())));
     }
 
-    private AlbumDTO converterAlbumParaDTO(AlbumModel album) {
+    private AlbumDTO converterAlbumParaDTO(AlbumModel album, String capaPrincipal, String placeholder,
+                                           Map<String, String> urlsAssinadas) {
         AlbumDTO dto = new AlbumDTO();
         dto.setId(album.getIdAlbum());
         dto.setTitulo(album.getTituloAlbum());
@@ -231,26 +413,21 @@ public class ArtistaService {
         dto.setNomeArtista(album.getArtista().getNomeArtista());
         dto.setDataCriacao(album.getDataCriacao());
         dto.setDataAtualizacao(album.getDataAtualizacao());
-        String capaPrincipal = null;
-        if (album.getCapas() != null && !album.getCapas().isEmpty()) {
-            capaPrincipal = album.getCapas().get(0).getChaveObjeto();
-        }
         if (capaPrincipal != null && !capaPrincipal.isBlank()) {
             String basePath = "/v1/albums/" + album.getIdAlbum();
             dto.setUrlImagemCapa(basePath + "/capa");
-            try {
-                dto.setUrlImagemCapaAssinada(
-                        minioService.generatePresignedUrl30Min(capaPrincipal)
-                );
-            } catch (Exception e) {
-//                dto.setUrlImagemCapaAssinada(basePath + "/capa/url");
-                dto.setUrlImagemCapaAssinada(null);
-            }
+            dto.setUrlImagemCapaAssinada(urlsAssinadas.get(capaPrincipal));
+            dto.setPlaceholderCapa(placeholder);
         }
         return dto;
     }
 
     public Page<ArtistaDTO> obterTodosArtistas(Pageable paginacao, String direcaoOrdenacao) {
+        return obterTodosArtistas(paginacao, direcaoOrdenacao, CamposResposta.completo());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArtistaDTO> obterTodosArtistas(Pageable paginacao, String direcaoOrdenacao, CamposResposta campos) {
         Page<ArtistaModel> artistas;
         if ("desc".equalsIgnoreCase(direcaoOrdenacao)) {
             artistas = artistaRepository.findAllOrderByNomeDesc(paginacao);
@@ -258,7 +435,7 @@ public class ArtistaService {
             artistas = artistaRepository.findAllOrderByNomeAsc(paginacao);
         }
 
-        return artistas.map(this::converterParaDTO);
+        return converterPagina(artistas, campos);
     }
 
     public Long qtdAlbumArtista(Long idAritsta){
@@ -267,7 +444,9 @@ public class ArtistaService {
     }
 
     private void enviarAtualizacao(String acao, Long idArtista) {
-        messagingTemplate.convertAndSend("/topic/updates", new UpdateMessage("artista", acao, idArtista));
+        UpdateMessage mensagem = new UpdateMessage("artista", acao, idArtista);
+        messagingTemplate.convertAndSend("/topic/updates", mensagem);
+        eventPublisher.publishEvent(mensagem);
     }
 
     private void preencherUrlFoto(ArtistaResponseDTO dto, ArtistaModel artista) {
@@ -285,5 +464,5 @@ public class ArtistaService {
         return "/v1/artistas/" + artista.getIdArtista() + "/foto";
     }
 
-    public record FotoArtista(byte[] dados, String tipoConteudo) {}
+    public record FotoArtista(String chave, String tipoConteudo, boolean derivados) {}
 }
@@ -1,6 +1,7 @@
 package com.seplag.artistalbum.domain.banda.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -32,6 +33,7 @@ public class BandaModel {
             orphanRemoval = true,
             fetch = FetchType.LAZY
     )
+    @BatchSize(size = 200)
     private Set<BandaArtistaModel> artistas = new HashSet<>();
 
     @PrePersist
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BandaArtistaRepository extends JpaRepository<BandaArtistaModel, Long> {
@@ -16,6 +17,9 @@ public interface BandaArtistaRepository extends JpaRepository<BandaArtistaModel,
     @Query("select ba from BandaArtistaModel ba join fetch ba.banda where ba.artista.idArtista = :idArtista")
     List<BandaArtistaModel> findByArtistaIdWithBanda(@Param("idArtista") Long idArtista);
 
+    @Query("select ba from BandaArtistaModel ba join fetch ba.banda where ba.artista.idArtista in :idsArtista")
+    List<BandaArtistaModel> findByArtistaIdsWithBanda(@Param("idsArtista") Collection<Long> idsArtista);
+
     boolean existsByBanda_IdBandaAndArtista_IdArtista(Long idBanda, Long idArtista);
 
     void deleteByBanda_IdBandaAndArtista_IdArtista(Long idBanda, Long idArtista);
@@ -1,13 +1,19 @@
 package com.seplag.artistalbum.domain.banda.repository;
 
 import com.seplag.artistalbum.domain.banda.model.BandaModel;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface BandaRepository extends JpaRepository<BandaModel, Long> {
 
@@ -30,5 +36,12 @@ public interface BandaRepository extends JpaRepository<BandaModel, Long> {
     """)
     Optional<BandaModel> findByIdWithArtistasDetalhados(@Param("idBanda") Long idBanda);
 
+    @EntityGraph(attributePaths = {"artistas"})
+    List<BandaModel> findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(LocalDateTime desde);
+
+    // Leitura em cursor para o catálogo em streaming
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM BandaModel b ORDER BY b.nomeBanda ASC")
+    Stream<BandaModel> streamAllOrderByNome();
 
 }
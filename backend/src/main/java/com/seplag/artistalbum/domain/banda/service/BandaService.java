@@ -14,6 +14,7 @@ import com.seplag.artistalbum.domain.banda.repository.BandaRepository;
 import com.seplag.artistalbum.shared.exception.ResourceNotFoundException;
 import com.seplag.artistalbum.shared.websocket.UpdateMessage;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,26 +23,36 @@ import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BandaService {
 
+    // Bandas convertidas de uma vez no catálogo em streaming (o mesmo intervalo de limpeza do CatalogoStreamService)
+    private static final int LOTE_STREAM = 200;
+
     private final BandaRepository bandaRepository;
     private final ArtistaRepository artistaRepository;
     private final BandaArtistaRepository bandaArtistaRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public BandaService(
             BandaRepository bandaRepository,
             ArtistaRepository artistaRepository,
             BandaArtistaRepository bandaArtistaRepository,
-            SimpMessagingTemplate messagingTemplate
+            SimpMessagingTemplate messagingTemplate,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.bandaRepository = bandaRepository;
         this.artistaRepository = artistaRepository;
         this.bandaArtistaRepository = bandaArtistaRepository;
         this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /* =========================
@@ -83,6 +94,42 @@ public class BandaService {
                 .toList();
     }
 
+    /* =========================
+       READ alteradas desde (catálogo incremental)
+       ========================= */
+    @Transactional
+    public List<BandaResponseDTO> listarAlteradasDesde(LocalDateTime desde) {
+        return bandaRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde)
+                .stream()
+                .map(BandaMapper::toResponseDTO)
+                .toList();
+    }
+
+    /* =========================
+       READ percorrer todas (streaming)
+       ========================= */
+    @Transactional
+    public void percorrerTodas(Consumer<BandaResponseDTO> consumidor) {
+        // Em lotes: com o lote inteiro na sessão, o @BatchSize carrega os vínculos e os artistas de várias bandas
+        // por consulta; banda a banda, cada uma faria as suas
+        List<BandaModel> lote = new ArrayList<>(LOTE_STREAM);
+        try (Stream<BandaModel> bandas = bandaRepository.streamAllOrderByNome()) {
+            bandas.forEach(banda -> {
+                lote.add(banda);
+                if (lote.size() == LOTE_STREAM) {
+                    converterLote(lote, consumidor);
+                }
+            });
+        }
+        converterLote(lote, consumidor);
+    }
+
+    private static void converterLote(List<BandaModel> lote, Consumer<BandaResponseDTO> consumidor) {
+        List<BandaResponseDTO> convertidas = lote.stream().map(BandaMapper::toResponseDTO).toList();
+        lote.clear();
+        convertidas.forEach(consumidor);
+    }
+
     /* =========================
        READ listar paginado
        ========================= */
@@ -187,6 +234,8 @@ public class BandaService {
     }
 
     private void enviarAtualizacao(String acao, Long idBanda) {
-        messagingTemplate.convertAndSend("/topic/updates", new UpdateMessage("banda", acao, idBanda));
+        UpdateMessage mensagem = new UpdateMessage("banda", acao, idBanda);
+        messagingTemplate.convertAndSend("/topic/updates", mensagem);
+        eventPublisher.publishEvent(mensagem);
     }
 }
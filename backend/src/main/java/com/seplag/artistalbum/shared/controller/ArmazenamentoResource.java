@@ -0,0 +1,46 @@
+package com.seplag.artistalbum.shared.controller;
+
+import com.seplag.artistalbum.shared.dto.RelatorioOrfaosDTO;
+import com.seplag.artistalbum.shared.exception.ResourceNotFoundException;
+import com.seplag.artistalbum.shared.service.ColetorOrfaosService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/armazenamento")
+@Tag(name = "Armazenamento", description = "Manutenção do bucket de imagens")
+public class ArmazenamentoResource {
+
+    private final ColetorOrfaosService coletorOrfaosService;
+
+    public ArmazenamentoResource(ColetorOrfaosService coletorOrfaosService) {
+        this.coletorOrfaosService = coletorOrfaosService;
+    }
+
+    @PostMapping("/orfaos/coleta")
+    @Operation(summary = "Iniciar coleta de objetos órfãos em segundo plano (simulação por padrão)")
+    public ResponseEntity<Void> iniciarColeta(
+            @Parameter(description = "Só conta e lista os órfãos, sem remover")
+            @RequestParam(defaultValue = "true") boolean simulacao) {
+        if (!coletorOrfaosService.iniciar(simulacao)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/orfaos/relatorio")
+    @Operation(summary = "Relatório da última coleta de órfãos")
+    public ResponseEntity<RelatorioOrfaosDTO> obterRelatorio() {
+        return coletorOrfaosService.obterUltimoRelatorio()
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("Nenhuma coleta de órfãos executada"));
+    }
+}
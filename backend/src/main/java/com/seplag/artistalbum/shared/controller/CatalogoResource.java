@@ -1,28 +1,183 @@
 package com.seplag.artistalbum.shared.controller;
 
+import com.seplag.artistalbum.shared.dto.CatalogoAlteracoesDTO;
 import com.seplag.artistalbum.shared.dto.CatalogoResponseDTO;
+import com.seplag.artistalbum.shared.service.CatalogoAlteracoesService;
 import com.seplag.artistalbum.shared.service.CatalogoService;
+import com.seplag.artistalbum.shared.service.CatalogoStreamService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/v1/catalogo")
 @Tag(name = "Catálogo", description = "Agrega artistas, álbuns e bandas")
 public class CatalogoResource {
 
+    private static final String CABECALHO_VERSAO = "X-Catalogo-Versao";
+    private static final String APPLICATION_CBOR = "application/cbor";
+    private static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    private static final MediaType TIPO_CBOR = MediaType.valueOf(APPLICATION_CBOR);
+    private static final MediaType TIPO_SMILE = MediaType.valueOf(APPLICATION_SMILE);
+
     private final CatalogoService catalogoService;
+    private final CatalogoStreamService catalogoStreamService;
+    private final CatalogoAlteracoesService catalogoAlteracoesService;
 
-    public CatalogoResource(CatalogoService catalogoService) {
+    public CatalogoResource(CatalogoService catalogoService,
+                            CatalogoStreamService catalogoStreamService,
+                            CatalogoAlteracoesService catalogoAlteracoesService) {
         this.catalogoService = catalogoService;
+        this.catalogoStreamService = catalogoStreamService;
+        this.catalogoAlteracoesService = catalogoAlteracoesService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_CBOR, APPLICATION_SMILE})
+    @Operation(summary = "Listar catálogo completo",
+            description = "JSON por padrão; CBOR ou Smile só quando o cabeçalho Accept pede o formato explicitamente")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CatalogoResponseDTO.class)))
+    public ResponseEntity<?> listarCatalogo(
+            WebRequest requisicao,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        CatalogoService.CatalogoSnapshot snapshot = catalogoService.obterSnapshot();
+
+        MediaType binario = formatoBinario(accept);
+        if (binario != null) {
+            return listarCatalogoBinario(requisicao, snapshot, binario);
+        }
+
+        // O JSON já vem serializado (e comprimido) no snapshot; cada codificação tem a sua ETag
+        boolean gzip = aceitaGzip(acceptEncoding);
+        String etag = gzip ? snapshot.etag().replaceFirst("\"$", "-gzip\"") : snapshot.etag();
+
+        // If-None-Match igual ao snapshot atual: 304 sem banco nem MinIO
+        if (requisicao.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .header(CABECALHO_VERSAO, String.valueOf(snapshot.versao()));
+        if (gzip) {
+            return resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.jsonGzip());
+        }
+        return resposta.body(snapshot.json());
+    }
+
+    private ResponseEntity<CatalogoResponseDTO> listarCatalogoBinario(WebRequest requisicao,
+                                                                      CatalogoService.CatalogoSnapshot snapshot,
+                                                                      MediaType formato) {
+        String sufixo = TIPO_SMILE.equals(formato) ? "-smile" : "-cbor";
+        String etag = snapshot.etag().replaceFirst("\"$", sufixo + "\"");
+        if (requisicao.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(formato)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(CABECALHO_VERSAO, String.valueOf(snapshot.versao()))
+                .body(snapshot.catalogo());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Listar catálogo completo em streaming (heap constante)")
+    public ResponseEntity<StreamingResponseBody> listarCatalogoStreaming() {
+        StreamingResponseBody corpo = catalogoStreamService::escreverCatalogo;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(corpo);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Listar alterações do catálogo desde um token")
+    public ResponseEntity<CatalogoAlteracoesDTO> listarAlteracoes(
+            @Parameter(description = "Token devolvido em proximoToken na consulta anterior")
+            @RequestParam("since") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(catalogoAlteracoesService.obterAlteracoesDesde(since));
+    }
+
+    /**
+     * Formato binário pedido pelo Accept, ou {@code null} para JSON. Curingas ({@code *}{@code /*},
+     * {@code application/*}) e a ausência do cabeçalho ficam com JSON: CBOR e Smile só saem quando
+     * aparecem com nome e preferência maior que a do JSON.
+     */
+    private static MediaType formatoBinario(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        MediaType escolhido = null;
+        double qualidadeJson = 0;
+        for (MediaType tipo : MediaType.parseMediaTypes(accept)) {
+            double qualidade = tipo.getQualityValue();
+            if (tipo.isWildcardType() || tipo.isWildcardSubtype()) {
+                continue;
+            }
+            if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(tipo)) {
+                qualidadeJson = Math.max(qualidadeJson, qualidade);
+            } else if ((TIPO_CBOR.equalsTypeAndSubtype(tipo) || TIPO_SMILE.equalsTypeAndSubtype(tipo))
+                    && qualidade > 0 && (escolhido == null || qualidade > escolhido.getQualityValue())) {
+                escolhido = tipo;
+            }
+        }
+        if (escolhido == null || escolhido.getQualityValue() <= qualidadeJson) {
+            return null;
+        }
+        return TIPO_CBOR.equalsTypeAndSubtype(escolhido) ? TIPO_CBOR : TIPO_SMILE;
+    }
+
+    private boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        // Uma entrada explícita para gzip vale mais que "*", em qualquer posição; "gzip;q=0" é recusa explícita
+        Double qualidadeGzip = null;
+        Double qualidadeCoringa = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.trim().split(";");
+            String codificacao = partes[0].trim();
+            if ("gzip".equalsIgnoreCase(codificacao)) {
+                qualidadeGzip = qualidade(partes);
+            } else if ("*".equals(codificacao)) {
+                qualidadeCoringa = qualidade(partes);
+            }
+        }
+        Double qualidade = qualidadeGzip != null ? qualidadeGzip : qualidadeCoringa;
+        return qualidade != null && qualidade > 0;
     }
 
-    @GetMapping
-    @Operation(summary = "Listar catálogo completo")
-    public ResponseEntity<CatalogoResponseDTO> listarCatalogo() {
-        return ResponseEntity.ok(catalogoService.obterCatalogoCompleto());
+    private static double qualidade(String[] partes) {
+        for (int i = 1; i < partes.length; i++) {
+            String parametro = partes[i].trim();
+            if (parametro.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parametro.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
     }
 }
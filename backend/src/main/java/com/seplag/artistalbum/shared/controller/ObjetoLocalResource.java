@@ -0,0 +1,91 @@
+package com.seplag.artistalbum.shared.controller;
+
+import com.seplag.artistalbum.shared.service.ArmazenamentoLocalService;
+import com.seplag.artistalbum.shared.service.ImagemStreamService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Destino das URLs assinadas quando o armazenamento é o sistema de arquivos: faz o papel do MinIO para leitura (GET)
+ * e upload direto (PUT). A assinatura na URL é a autorização, como numa URL pré-assinada do S3.
+ */
+@RestController
+@RequestMapping("/v1/objetos")
+@ConditionalOnProperty(name = "armazenamento.tipo", havingValue = "sistema-arquivos")
+@Tag(name = "Objetos", description = "URLs assinadas do armazenamento local")
+public class ObjetoLocalResource {
+
+    private final ArmazenamentoLocalService armazenamento;
+    private final MinioService minioService;
+    private final ImagemStreamService imagemStreamService;
+    private final long tamanhoMaximo;
+
+    public ObjetoLocalResource(ArmazenamentoLocalService armazenamento, MinioService minioService,
+                               ImagemStreamService imagemStreamService,
+                               @Value("${imagem.upload.tamanho-maximo:10MB}") DataSize tamanhoMaximo) {
+        this.armazenamento = armazenamento;
+        this.minioService = minioService;
+        this.imagemStreamService = imagemStreamService;
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+    }
+
+    @GetMapping("/**")
+    @Operation(summary = "Ler objeto por URL assinada")
+    public ResponseEntity<StreamingResponseBody> obter(@RequestParam long expira, @RequestParam String assinatura,
+                                                       HttpServletRequest request, WebRequest requisicao) {
+        String chave = chave(request);
+        if (!armazenamento.verificar("GET", chave, expira, assinatura)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return imagemStreamService.entregar(chave, null, requisicao);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/**")
+    @Operation(summary = "Enviar objeto por URL assinada (upload direto)")
+    public ResponseEntity<Void> enviar(@RequestParam long expira, @RequestParam String assinatura,
+                                       @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String tipoConteudo,
+                                       HttpServletRequest request) throws Exception {
+        String chave = chave(request);
+        if (!armazenamento.verificar("PUT", chave, expira, assinatura)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long tamanho = request.getContentLengthLong();
+        if (tamanho < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).build();
+        }
+        if (tamanho > tamanhoMaximo) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        minioService.uploadStream(chave, request.getInputStream(), tamanho, tipoConteudo);
+        return ResponseEntity.ok().build();
+    }
+
+    // A chave é o resto do caminho, como na URL path-style do MinIO
+    private static String chave(HttpServletRequest request) {
+        String caminho = request.getRequestURI().substring(request.getContextPath().length() + ArmazenamentoLocalService.ROTA.length());
+        return UriUtils.decode(caminho, StandardCharsets.UTF_8);
+    }
+}
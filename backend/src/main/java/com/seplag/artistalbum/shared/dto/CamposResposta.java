@@ -0,0 +1,77 @@
+package com.seplag.artistalbum.shared.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parâmetros {@code fields} e {@code expand} das leituras de artistas e álbuns.
+ * Sem nenhum dos dois a resposta é a completa de sempre; {@code expand} vazio
+ * não carrega associação alguma e {@code fields} limita o que é serializado.
+ * {@code size} troca as URLs de capa pelo derivado do tamanho pedido, quando existir.
+ */
+public record CamposResposta(Set<String> campos, Set<String> expandir, Integer tamanhoImagem) {
+
+    public static final String FILTRO_ARTISTA = "camposArtista";
+    public static final String FILTRO_ALBUM = "camposAlbum";
+
+    public static CamposResposta completo() {
+        return new CamposResposta(null, null, null);
+    }
+
+    public static CamposResposta de(String fields, String expand) {
+        Set<String> campos = fields == null || fields.isBlank() ? null : separar(fields);
+        Set<String> expandir = expand == null ? null : separar(expand);
+        return new CamposResposta(campos, expandir, null);
+    }
+
+    public CamposResposta comTamanhoImagem(Integer size) {
+        return new CamposResposta(campos, expandir, size);
+    }
+
+    public boolean incluiCampo(String campo) {
+        return campos == null || campos.contains(campo);
+    }
+
+    public boolean expande(String associacao) {
+        return incluiCampo(associacao) && (expandir == null || expandir.contains(associacao));
+    }
+
+    /**
+     * Envolve o corpo da resposta aplicando {@code fields} aos DTOs marcados com o filtro informado.
+     * Os demais DTOs aninhados continuam saindo completos.
+     */
+    public MappingJacksonValue aplicar(Object corpo, String filtro) {
+        SimpleFilterProvider filtros = provedorPadrao();
+        if (campos != null) {
+            filtros.addFilter(filtro, SimpleBeanPropertyFilter.filterOutAllExcept(campos));
+        }
+        MappingJacksonValue valor = new MappingJacksonValue(corpo);
+        valor.setFilters(filtros);
+        return valor;
+    }
+
+    public static SimpleFilterProvider provedorPadrao() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    private static Set<String> separar(String valor) {
+        return Arrays.stream(valor.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /* Mixins aplicados só no ObjectMapper do Spring (ver CamposRespostaConfig) */
+    @JsonFilter(FILTRO_ARTISTA)
+    public interface FiltroArtista {}
+
+    @JsonFilter(FILTRO_ALBUM)
+    public interface FiltroAlbum {}
+}
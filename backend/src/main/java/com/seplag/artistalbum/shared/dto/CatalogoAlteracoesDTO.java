@@ -0,0 +1,71 @@
+package com.seplag.artistalbum.shared.dto;
+
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.domain.artista.dto.ArtistaResponseDTO;
+import com.seplag.artistalbum.domain.banda.dto.BandaResponseDTO;
+
+import java.util.List;
+
+public class CatalogoAlteracoesDTO {
+
+    private String proximoToken;
+    private List<ArtistaResponseDTO> artistas;
+    private List<AlbumDTO> albuns;
+    private List<BandaResponseDTO> bandas;
+    private List<CatalogoExclusaoDTO> exclusoes;
+
+    public CatalogoAlteracoesDTO() {
+    }
+
+    public CatalogoAlteracoesDTO(String proximoToken,
+                                 List<ArtistaResponseDTO> artistas,
+                                 List<AlbumDTO> albuns,
+                                 List<BandaResponseDTO> bandas,
+                                 List<CatalogoExclusaoDTO> exclusoes) {
+        this.proximoToken = proximoToken;
+        this.artistas = artistas;
+        this.albuns = albuns;
+        this.bandas = bandas;
+        this.exclusoes = exclusoes;
+    }
+
+    public String getProximoToken() {
+        return proximoToken;
+    }
+
+    public void setProximoToken(String proximoToken) {
+        this.proximoToken = proximoToken;
+    }
+
+    public List<ArtistaResponseDTO> getArtistas() {
+        return artistas;
+    }
+
+    public void setArtistas(List<ArtistaResponseDTO> artistas) {
+        this.artistas = artistas;
+    }
+
+    public List<AlbumDTO> getAlbuns() {
+        return albuns;
+    }
+
+    public void setAlbuns(List<AlbumDTO> albuns) {
+        this.albuns = albuns;
+    }
+
+    public List<BandaResponseDTO> getBandas() {
+        return bandas;
+    }
+
+    public void setBandas(List<BandaResponseDTO> bandas) {
+        this.bandas = bandas;
+    }
+
+    public List<CatalogoExclusaoDTO> getExclusoes() {
+        return exclusoes;
+    }
+
+    public void setExclusoes(List<CatalogoExclusaoDTO> exclusoes) {
+        this.exclusoes = exclusoes;
+    }
+}
@@ -0,0 +1,43 @@
+package com.seplag.artistalbum.shared.dto;
+
+import java.time.LocalDateTime;
+
+public class CatalogoExclusaoDTO {
+
+    private String entidade;
+    private Long id;
+    private LocalDateTime dataExclusao;
+
+    public CatalogoExclusaoDTO() {
+    }
+
+    public CatalogoExclusaoDTO(String entidade, Long id, LocalDateTime dataExclusao) {
+        this.entidade = entidade;
+        this.id = id;
+        this.dataExclusao = dataExclusao;
+    }
+
+    public String getEntidade() {
+        return entidade;
+    }
+
+    public void setEntidade(String entidade) {
+        this.entidade = entidade;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getDataExclusao() {
+        return dataExclusao;
+    }
+
+    public void setDataExclusao(LocalDateTime dataExclusao) {
+        this.dataExclusao = dataExclusao;
+    }
+}
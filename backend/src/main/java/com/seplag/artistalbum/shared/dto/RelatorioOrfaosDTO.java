@@ -0,0 +1,110 @@
+package com.seplag.artistalbum.shared.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class RelatorioOrfaosDTO {
+
+    private boolean simulacao;
+    private boolean concluido;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+    private long objetosListados;
+    private long objetosRecentes;
+    private long orfaos;
+    private long bytesOrfaos;
+    private long removidos;
+    private long falhas;
+    private List<String> amostraOrfaos;
+
+    public RelatorioOrfaosDTO() {
+    }
+
+    public boolean isSimulacao() {
+        return simulacao;
+    }
+
+    public void setSimulacao(boolean simulacao) {
+        this.simulacao = simulacao;
+    }
+
+    public boolean isConcluido() {
+        return concluido;
+    }
+
+    public void setConcluido(boolean concluido) {
+        this.concluido = concluido;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public void setFim(LocalDateTime fim) {
+        this.fim = fim;
+    }
+
+    public long getObjetosListados() {
+        return objetosListados;
+    }
+
+    public void setObjetosListados(long objetosListados) {
+        this.objetosListados = objetosListados;
+    }
+
+    public long getObjetosRecentes() {
+        return objetosRecentes;
+    }
+
+    public void setObjetosRecentes(long objetosRecentes) {
+        this.objetosRecentes = objetosRecentes;
+    }
+
+    public long getOrfaos() {
+        return orfaos;
+    }
+
+    public void setOrfaos(long orfaos) {
+        this.orfaos = orfaos;
+    }
+
+    public long getBytesOrfaos() {
+        return bytesOrfaos;
+    }
+
+    public void setBytesOrfaos(long bytesOrfaos) {
+        this.bytesOrfaos = bytesOrfaos;
+    }
+
+    public long getRemovidos() {
+        return removidos;
+    }
+
+    public void setRemovidos(long removidos) {
+        this.removidos = removidos;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(long falhas) {
+        this.falhas = falhas;
+    }
+
+    public List<String> getAmostraOrfaos() {
+        return amostraOrfaos;
+    }
+
+    public void setAmostraOrfaos(List<String> amostraOrfaos) {
+        this.amostraOrfaos = amostraOrfaos;
+    }
+}
@@ -0,0 +1,26 @@
+package com.seplag.artistalbum.shared.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class UploadConfirmacaoRequestDTO {
+
+    @NotBlank
+    @Size(max = 500)
+    private String chaveObjeto;
+
+    public UploadConfirmacaoRequestDTO() {
+    }
+
+    public UploadConfirmacaoRequestDTO(String chaveObjeto) {
+        this.chaveObjeto = chaveObjeto;
+    }
+
+    public String getChaveObjeto() {
+        return chaveObjeto;
+    }
+
+    public void setChaveObjeto(String chaveObjeto) {
+        this.chaveObjeto = chaveObjeto;
+    }
+}
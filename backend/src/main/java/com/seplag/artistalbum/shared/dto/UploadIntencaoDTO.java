@@ -0,0 +1,53 @@
+package com.seplag.artistalbum.shared.dto;
+
+import java.time.LocalDateTime;
+
+public class UploadIntencaoDTO {
+
+    private String chaveObjeto;
+    private String urlUpload;
+    private String metodo;
+    private LocalDateTime expiraEm;
+
+    public UploadIntencaoDTO() {
+    }
+
+    public UploadIntencaoDTO(String chaveObjeto, String urlUpload, String metodo, LocalDateTime expiraEm) {
+        this.chaveObjeto = chaveObjeto;
+        this.urlUpload = urlUpload;
+        this.metodo = metodo;
+        this.expiraEm = expiraEm;
+    }
+
+    public String getChaveObjeto() {
+        return chaveObjeto;
+    }
+
+    public void setChaveObjeto(String chaveObjeto) {
+        this.chaveObjeto = chaveObjeto;
+    }
+
+    public String getUrlUpload() {
+        return urlUpload;
+    }
+
+    public void setUrlUpload(String urlUpload) {
+        this.urlUpload = urlUpload;
+    }
+
+    public String getMetodo() {
+        return metodo;
+    }
+
+    public void setMetodo(String metodo) {
+        this.metodo = metodo;
+    }
+
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(LocalDateTime expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+}
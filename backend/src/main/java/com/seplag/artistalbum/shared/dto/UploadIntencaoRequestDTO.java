@@ -0,0 +1,39 @@
+package com.seplag.artistalbum.shared.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class UploadIntencaoRequestDTO {
+
+    @NotBlank
+    private String tipoConteudo;
+
+    @NotNull
+    @Positive
+    private Long tamanho;
+
+    public UploadIntencaoRequestDTO() {
+    }
+
+    public UploadIntencaoRequestDTO(String tipoConteudo, Long tamanho) {
+        this.tipoConteudo = tipoConteudo;
+        this.tamanho = tamanho;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public void setTipoConteudo(String tipoConteudo) {
+        this.tipoConteudo = tipoConteudo;
+    }
+
+    public Long getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(Long tamanho) {
+        this.tamanho = tamanho;
+    }
+}
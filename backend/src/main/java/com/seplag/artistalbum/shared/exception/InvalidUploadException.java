@@ -0,0 +1,8 @@
+package com.seplag.artistalbum.shared.exception;
+
+public class InvalidUploadException extends RuntimeException {
+
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package com.seplag.artistalbum.shared.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Tombstone gravado por trigger a cada exclusão de artista, álbum ou banda
+@Entity
+@Table(name = "catalogo_exclusao")
+public class CatalogoExclusaoModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "idExclusao")
+    private Long idExclusao;
+
+    @Column(name = "entidade", nullable = false, length = 20)
+    private String entidade;
+
+    @Column(name = "idEntidade", nullable = false)
+    private Long idEntidade;
+
+    @Column(name = "dataExclusao", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime dataExclusao;
+
+    public CatalogoExclusaoModel() {}
+
+    public Long getIdExclusao() {
+        return idExclusao;
+    }
+
+    public String getEntidade() {
+        return entidade;
+    }
+
+    public Long getIdEntidade() {
+        return idEntidade;
+    }
+
+    public LocalDateTime getDataExclusao() {
+        return dataExclusao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CatalogoExclusaoModel that = (CatalogoExclusaoModel) o;
+        return Objects.equals(idExclusao, that.idExclusao);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idExclusao);
+    }
+}
@@ -0,0 +1,70 @@
+package com.seplag.artistalbum.shared.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Objeto do MinIO endereçado pelo SHA-256; referencias é mantida por trigger (album_capa e artista)
+@Entity
+@Table(name = "conteudo_imagem")
+public class ConteudoImagemModel {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "chaveObjeto", nullable = false, length = 500)
+    private String chaveObjeto;
+
+    @Column(name = "tamanho", nullable = false)
+    private long tamanho;
+
+    @Column(name = "tipoConteudo", length = 100)
+    private String tipoConteudo;
+
+    @Column(name = "referencias", nullable = false, insertable = false, updatable = false)
+    private int referencias;
+
+    @Column(name = "dataCriacao", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime dataCriacao;
+
+    public ConteudoImagemModel() {}
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getChaveObjeto() {
+        return chaveObjeto;
+    }
+
+    public long getTamanho() {
+        return tamanho;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    public int getReferencias() {
+        return referencias;
+    }
+
+    public LocalDateTime getDataCriacao() {
+        return dataCriacao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConteudoImagemModel that = (ConteudoImagemModel) o;
+        return Objects.equals(hash, that.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hash);
+    }
+}
@@ -0,0 +1,19 @@
+package com.seplag.artistalbum.shared.repository;
+
+import com.seplag.artistalbum.shared.model.CatalogoExclusaoModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogoExclusaoRepository extends JpaRepository<CatalogoExclusaoModel, Long> {
+
+    List<CatalogoExclusaoModel> findByDataExclusaoAfterOrderByDataExclusaoAsc(LocalDateTime desde);
+
+    // Relógio do banco (início da transação), o mesmo do CURRENT_TIMESTAMP gravado pelos triggers
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime agora();
+}
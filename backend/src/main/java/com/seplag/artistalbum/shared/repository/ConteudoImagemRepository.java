@@ -0,0 +1,46 @@
+package com.seplag.artistalbum.shared.repository;
+
+import com.seplag.artistalbum.shared.model.ConteudoImagemModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ConteudoImagemRepository extends JpaRepository<ConteudoImagemModel, String> {
+
+    @Query("SELECT c.hash FROM ConteudoImagemModel c WHERE c.hash IN :hashes")
+    List<String> findHashesExistentes(@Param("hashes") Collection<String> hashes);
+
+    @Query("SELECT c.chaveObjeto FROM ConteudoImagemModel c WHERE c.chaveObjeto IN :chaves")
+    List<String> findChavesExistentes(@Param("chaves") Collection<String> chaves);
+
+    // Trava por hash até o fim da transação, mesmo sem linha (o INSERT de outra transação ainda não aparece)
+    @Query(value = "SELECT count(*) FROM (SELECT pg_advisory_xact_lock(hashtextextended(:hash, 0))) AS trava",
+            nativeQuery = true)
+    long travarHash(@Param("hash") String hash);
+
+    // Não altera nada: só trava a linha até o fim da transação; 0 se ela não existe
+    @Modifying
+    @Query(value = "UPDATE conteudo_imagem SET referencias = referencias WHERE hash = :hash", nativeQuery = true)
+    int travar(@Param("hash") String hash);
+
+    @Modifying
+    @Query(value = "INSERT INTO conteudo_imagem (hash, chaveObjeto, tamanho, tipoConteudo) " +
+            "VALUES (:hash, :chave, :tamanho, :tipoConteudo) ON CONFLICT (hash) DO NOTHING", nativeQuery = true)
+    int inserir(@Param("hash") String hash, @Param("chave") String chave,
+                @Param("tamanho") long tamanho, @Param("tipoConteudo") String tipoConteudo);
+
+    // Trava as linhas: um reservar() concorrente espera o commit e então vê que a linha sumiu
+    @Query(value = "SELECT chaveObjeto FROM conteudo_imagem WHERE chaveObjeto IN (:chaves) AND referencias <= 0 " +
+            "FOR UPDATE", nativeQuery = true)
+    List<String> findSemReferenciasParaRemocao(@Param("chaves") Collection<String> chaves);
+
+    @Modifying
+    @Query("DELETE FROM ConteudoImagemModel c WHERE c.chaveObjeto IN :chaves")
+    int removerPorChaves(@Param("chaves") Collection<String> chaves);
+}
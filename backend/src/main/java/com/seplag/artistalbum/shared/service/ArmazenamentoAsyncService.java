@@ -0,0 +1,266 @@
+package com.seplag.artistalbum.shared.service;
+
+import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.ListObjectsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioAsyncClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.StatObjectArgs;
+import io.minio.http.HttpUtils;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Acesso não bloqueante ao MinIO ({@link MinioAsyncClient}): cada operação devolve um {@link CompletableFuture},
+ * então quem chama pode sobrepor várias idas ao armazenamento sem prender uma thread por chamada.
+ * Os dois clientes (interno e público, só para assinar) compartilham um único OkHttpClient com pool de conexões
+ * e limites de requisições simultâneas configuráveis; o padrão do OkHttp (5 por host) serializaria as chamadas.
+ * O bucket é verificado/criado uma vez, na subida, e não a cada envio.
+ */
+@Service
+@ConditionalOnProperty(name = "armazenamento.tipo", havingValue = "minio", matchIfMissing = true)
+public class ArmazenamentoAsyncService implements ArmazenamentoObjetos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArmazenamentoAsyncService.class);
+
+    private final MinioAsyncClient cliente;
+    private final MinioAsyncClient clientePublico;
+    private final String bucketName;
+    private final HttpUrl urlBasePublica;
+    private volatile CompletableFuture<Void> bucketPronto;
+
+    public ArmazenamentoAsyncService(@Value("${minio.endpoint}") String endpoint,
+                                     @Value("${minio.public-endpoint}") String publicEndpoint,
+                                     @Value("${minio.access-key}") String accessKey,
+                                     @Value("${minio.secret-key}") String secretKey,
+                                     @Value("${minio.bucket-name}") String bucketName,
+                                     @Value("${minio.http.max-conexoes-ociosas:32}") int maxConexoesOciosas,
+                                     @Value("${minio.http.keep-alive:5m}") Duration keepAlive,
+                                     @Value("${minio.http.max-requisicoes:64}") int maxRequisicoes,
+                                     @Value("${minio.http.timeout-conexao:10s}") Duration timeoutConexao,
+                                     @Value("${minio.http.timeout-leitura:5m}") Duration timeoutLeitura) {
+        this.bucketName = bucketName;
+        this.urlBasePublica = HttpUrl.get(publicEndpoint).newBuilder().addPathSegment(bucketName).build();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequisicoes);
+        // Um único host (o MinIO): o limite por host é o que de fato vale
+        dispatcher.setMaxRequestsPerHost(maxRequisicoes);
+        OkHttpClient http = HttpUtils.newDefaultHttpClient(
+                        timeoutConexao.toMillis(), timeoutLeitura.toMillis(), timeoutLeitura.toMillis())
+                .newBuilder()
+                .connectionPool(new ConnectionPool(maxConexoesOciosas, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .build();
+
+        this.cliente = MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .region("us-east-1")
+                .httpClient(http)
+                .build();
+        this.clientePublico = MinioAsyncClient.builder()
+                .endpoint(publicEndpoint)
+                .credentials(accessKey, secretKey)
+                .region("us-east-1")
+                .httpClient(http)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializarBucket() {
+        preparar().whenComplete((ok, erro) -> {
+            if (erro != null) {
+                log.warn("MinIO indisponível na subida; o bucket será verificado no primeiro envio: {}", erro.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Verifica/cria o bucket uma única vez. Uma falha não fica memorizada: a próxima chamada tenta de novo.
+     */
+    @Override
+    public CompletableFuture<Void> preparar() {
+        CompletableFuture<Void> atual = bucketPronto;
+        if (atual != null && !atual.isCompletedExceptionally()) {
+            return atual;
+        }
+        synchronized (this) {
+            if (bucketPronto == null || bucketPronto.isCompletedExceptionally()) {
+                bucketPronto = executar(() -> cliente.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build()))
+                        .thenCompose(existe -> existe
+                                ? CompletableFuture.<Void>completedFuture(null)
+                                : executar(() -> cliente.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build())));
+            }
+            return bucketPronto;
+        }
+    }
+
+    /**
+     * O cliente lê as partes de {@code dados} conforme envia; o stream precisa continuar aberto até o futuro terminar.
+     */
+    @Override
+    public CompletableFuture<Void> enviar(String chave, InputStream dados, long tamanho, String tipoConteudo) {
+        return preparar().thenCompose(pronto -> executar(() -> cliente.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(chave)
+                        .stream(dados, tamanho, -1)
+                        .contentType(tipoConteudo)
+                        .build())))
+                .thenAccept(resposta -> {});
+    }
+
+    @Override
+    public CompletableFuture<InputStream> abrir(String chave, long inicio, Long tamanho) {
+        return executar(() -> cliente.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(chave)
+                        .offset(inicio)
+                        .length(tamanho)
+                        .build()))
+                .thenApply(resposta -> resposta);
+    }
+
+    @Override
+    public CompletableFuture<MinioService.ObjetoInfo> obterInfo(String chave) {
+        return executar(() -> cliente.statObject(
+                StatObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(chave)
+                        .build()))
+                .thenApply(stat -> new MinioService.ObjetoInfo(stat.size(), stat.etag(), stat.contentType(), stat.lastModified()));
+    }
+
+    @Override
+    public CompletableFuture<Void> remover(String chave) {
+        return executar(() -> cliente.removeObject(
+                RemoveObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(chave)
+                        .build()));
+    }
+
+    /**
+     * Listagem recursiva sob {@code prefixo}, em ordem de chave. É preguiçosa e bloqueante: cada página de
+     * {@code tamanhoPagina} chaves é buscada só quando a iteração chega nela.
+     * Uma falha de listagem no meio do caminho sai como {@link IllegalStateException}.
+     */
+    @Override
+    public Stream<MinioService.ObjetoListado> listar(String prefixo, int tamanhoPagina) {
+        Iterable<Result<Item>> itens = cliente.listObjects(
+                ListObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .prefix(prefixo)
+                        .recursive(true)
+                        .maxKeys(tamanhoPagina)
+                        .build());
+        return StreamSupport.stream(itens.spliterator(), false)
+                .map(resultado -> {
+                    try {
+                        Item item = resultado.get();
+                        return new MinioService.ObjetoListado(item.objectName(), item.size(), item.lastModified());
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Falha ao listar " + prefixo, e);
+                    }
+                });
+    }
+
+    /**
+     * Remove as chaves com DeleteObjects (até 1000 por requisição) e devolve as que o MinIO recusou.
+     * Bloqueante: o cliente só envia as requisições quando o resultado é percorrido.
+     */
+    @Override
+    public List<String> removerVarios(Collection<String> chaves) throws Exception {
+        List<String> falhas = new ArrayList<>();
+        if (chaves.isEmpty()) {
+            return falhas;
+        }
+        Iterable<Result<DeleteError>> erros = cliente.removeObjects(
+                RemoveObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .objects(chaves.stream().map(DeleteObject::new).toList())
+                        .build());
+        for (Result<DeleteError> erro : erros) {
+            DeleteError detalhe = erro.get();
+            log.warn("MinIO recusou remover {}: {}", detalhe.objectName(), detalhe.message());
+            falhas.add(detalhe.objectName());
+        }
+        return falhas;
+    }
+
+    /** URL sem assinatura no endpoint público (path-style); só abre com leitura anônima liberada no bucket. */
+    @Override
+    public String urlPublica(String chave) {
+        return urlBasePublica.newBuilder().addPathSegments(chave).build().toString();
+    }
+
+    @Override
+    public CompletableFuture<String> assinarLeitura(String chave, Duration validade) {
+        return assinar(Method.GET, chave, validade);
+    }
+
+    /** O PUT assinado falharia sem o bucket; normalmente ele já foi garantido na subida. */
+    @Override
+    public CompletableFuture<String> assinarEnvio(String chave, Duration validade) {
+        return preparar().thenCompose(pronto -> assinar(Method.PUT, chave, validade));
+    }
+
+    /** Assinatura local (região fixa, sem ida ao MinIO), com o endpoint público. */
+    private CompletableFuture<String> assinar(Method metodo, String chave, Duration validade) {
+        try {
+            return CompletableFuture.completedFuture(clientePublico.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(metodo)
+                            .bucket(bucketName)
+                            .object(chave)
+                            .expiry((int) validade.toSeconds(), TimeUnit.SECONDS)
+                            .build()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Os métodos do cliente assíncrono também lançam (assinatura, argumentos) antes de devolver o futuro
+    private static <T> CompletableFuture<T> executar(Chamada<T> chamada) {
+        try {
+            return chamada.iniciar();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Chamada<T> {
+        CompletableFuture<T> iniciar() throws Exception;
+    }
+}
@@ -0,0 +1,326 @@
+package com.seplag.artistalbum.shared.service;
+
+import okhttp3.HttpUrl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento em um diretório local, para instalações de um nó só (e testes sem container do MinIO).
+ * Cada objeto é um arquivo em {@code objetos/<aa>/<bb>/<chave codificada>}, com {@code aabb} do SHA-256 da chave:
+ * nenhum diretório acumula todos os objetos e a chave nunca vira caminho (sem {@code ..}). A gravação vai para
+ * {@code tmp/} por um {@link FileChannel} e entra no lugar com um move atômico, então um leitor vê o arquivo antigo
+ * ou o novo inteiro. O tipo de conteúdo não é gravado: é detectado pelos primeiros bytes (o bucket só tem imagens).
+ * As URLs "assinadas" apontam para a própria API ({@code /v1/objetos/...}) com validade e HMAC.
+ * As operações rodam na thread que chama; os futuros já voltam completos.
+ */
+@Service
+@ConditionalOnProperty(name = "armazenamento.tipo", havingValue = "sistema-arquivos")
+public class ArmazenamentoLocalService implements ArmazenamentoObjetos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArmazenamentoLocalService.class);
+
+    public static final String ROTA = "/v1/objetos/";
+    private static final int TAMANHO_MAXIMO_NOME = 255;
+    private static final String SUFIXO_TEMPORARIO = ".parcial";
+
+    private final Path objetos;
+    private final Path temporarios;
+    private final HttpUrl urlBase;
+    private final SecretKeySpec chaveAssinatura;
+
+    public ArmazenamentoLocalService(@Value("${armazenamento.sistema-arquivos.diretorio}") String diretorio,
+                                     @Value("${armazenamento.sistema-arquivos.url-base:http://localhost:8080/albumartistaapi}") String urlBase,
+                                     @Value("${armazenamento.sistema-arquivos.segredo:}") String segredo) throws IOException {
+        Path raiz = Path.of(diretorio).toAbsolutePath();
+        this.objetos = raiz.resolve("objetos");
+        this.temporarios = raiz.resolve("tmp");
+        this.urlBase = HttpUrl.get(urlBase);
+
+        byte[] bytesSegredo;
+        if (segredo == null || segredo.isBlank()) {
+            log.warn("armazenamento.sistema-arquivos.segredo vazio: usando um segredo aleatório, e as URLs assinadas deixam de valer ao reiniciar");
+            bytesSegredo = new byte[32];
+            new SecureRandom().nextBytes(bytesSegredo);
+        } else {
+            bytesSegredo = segredo.getBytes(StandardCharsets.UTF_8);
+        }
+        this.chaveAssinatura = new SecretKeySpec(bytesSegredo, "HmacSHA256");
+
+        Files.createDirectories(objetos);
+        Files.createDirectories(temporarios);
+        // Sobras de gravações interrompidas por uma parada da aplicação
+        try (Stream<Path> sobras = Files.list(temporarios)) {
+            for (Path sobra : sobras.toList()) {
+                Files.deleteIfExists(sobra);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> preparar() {
+        return executar(() -> {
+            Files.createDirectories(objetos);
+            Files.createDirectories(temporarios);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> enviar(String chave, InputStream dados, long tamanho, String tipoConteudo) {
+        return executar(() -> {
+            Path destino = caminho(chave);
+            Files.createDirectories(destino.getParent());
+            Path temporario = Files.createTempFile(temporarios, null, SUFIXO_TEMPORARIO);
+            try {
+                try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                    ReadableByteChannel origem = Channels.newChannel(dados);
+                    long gravados = 0;
+                    while (gravados < tamanho) {
+                        long lidos = canal.transferFrom(origem, gravados, tamanho - gravados);
+                        if (lidos <= 0) {
+                            break;
+                        }
+                        gravados += lidos;
+                    }
+                    if (gravados != tamanho) {
+                        throw new IOException("Stream terminou em " + gravados + " de " + tamanho + " bytes: " + chave);
+                    }
+                    canal.force(false);
+                }
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<InputStream> abrir(String chave, long inicio, Long tamanho) {
+        return executar(() -> {
+            FileChannel canal = FileChannel.open(caminho(chave), StandardOpenOption.READ);
+            return new TrechoArquivo(canal, inicio, tamanho == null ? Long.MAX_VALUE : inicio + tamanho);
+        });
+    }
+
+    @Override
+    public CompletableFuture<MinioService.ObjetoInfo> obterInfo(String chave) {
+        return executar(() -> {
+            Path arquivo = caminho(chave);
+            BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+            String tipoConteudo;
+            try (InputStream entrada = Files.newInputStream(arquivo)) {
+                tipoConteudo = DerivadosImagemService.detectarTipo(entrada);
+            }
+            // Como o ETag fraco dos servidores de arquivos: muda com qualquer regravação do arquivo
+            long modificacao = atributos.lastModifiedTime().toMillis();
+            String etag = Long.toHexString(modificacao) + "-" + Long.toHexString(atributos.size());
+            return new MinioService.ObjetoInfo(atributos.size(), etag, tipoConteudo,
+                    ZonedDateTime.ofInstant(atributos.lastModifiedTime().toInstant(), ZoneOffset.UTC));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> remover(String chave) {
+        return executar(() -> {
+            Files.deleteIfExists(caminho(chave));
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> removerVarios(Collection<String> chaves) {
+        List<String> falhas = new ArrayList<>();
+        for (String chave : chaves) {
+            try {
+                Files.deleteIfExists(caminho(chave));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Falha ao remover {}: {}", chave, e.getMessage());
+                falhas.add(chave);
+            }
+        }
+        return falhas;
+    }
+
+    /**
+     * Percorre todos os fragmentos (a chave não determina o diretório), sem ordem de chave; {@code tamanhoPagina}
+     * não se aplica. Uma falha de leitura no meio do caminho sai como {@link IllegalStateException}.
+     */
+    @Override
+    public Stream<MinioService.ObjetoListado> listar(String prefixo, int tamanhoPagina) {
+        Stream<Path> arquivos;
+        try {
+            arquivos = Files.walk(objetos);
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao listar " + prefixo, e);
+        }
+        return arquivos.flatMap(arquivo -> {
+            String chave = URLDecoder.decode(arquivo.getFileName().toString(), StandardCharsets.UTF_8);
+            if (!chave.startsWith(prefixo)) {
+                return Stream.empty();
+            }
+            try {
+                BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+                if (!atributos.isRegularFile()) {
+                    return Stream.empty();
+                }
+                return Stream.of(new MinioService.ObjetoListado(chave, atributos.size(),
+                        ZonedDateTime.ofInstant(atributos.lastModifiedTime().toInstant(), ZoneOffset.UTC)));
+            } catch (NoSuchFileException e) {
+                // Removido durante a listagem
+                return Stream.empty();
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao listar " + prefixo, e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> assinarLeitura(String chave, Duration validade) {
+        return CompletableFuture.completedFuture(url("GET", chave, validade));
+    }
+
+    @Override
+    public CompletableFuture<String> assinarEnvio(String chave, Duration validade) {
+        return CompletableFuture.completedFuture(url("PUT", chave, validade));
+    }
+
+    @Override
+    public String urlPublica(String chave) {
+        throw new UnsupportedOperationException("Armazenamento em sistema de arquivos não tem URL pública");
+    }
+
+    @Override
+    public Path arquivoLocal(String chave) {
+        return caminho(chave);
+    }
+
+    /** Confere uma URL gerada por {@link #assinarLeitura}/{@link #assinarEnvio}: mesmo método, mesma chave, no prazo. */
+    public boolean verificar(String metodo, String chave, long expira, String assinatura) {
+        if (assinatura == null || Instant.now().getEpochSecond() > expira) {
+            return false;
+        }
+        return MessageDigest.isEqual(assinatura(metodo, chave, expira).getBytes(StandardCharsets.US_ASCII),
+                assinatura.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String url(String metodo, String chave, Duration validade) {
+        long expira = Instant.now().plus(validade).getEpochSecond();
+        return urlBase.newBuilder()
+                .addPathSegments(ROTA.substring(1, ROTA.length() - 1))
+                .addPathSegments(chave)
+                .addQueryParameter("expira", Long.toString(expira))
+                .addQueryParameter("assinatura", assinatura(metodo, chave, expira))
+                .build()
+                .toString();
+    }
+
+    private String assinatura(String metodo, String chave, long expira) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(chaveAssinatura);
+            byte[] assinatura = mac.doFinal((metodo + "\n" + chave + "\n" + expira).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(assinatura);
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+
+    private Path caminho(String chave) {
+        if (chave == null || chave.isEmpty() || chave.equals(".") || chave.equals("..")) {
+            throw new IllegalArgumentException("Chave inválida: " + chave);
+        }
+        String nome = URLEncoder.encode(chave, StandardCharsets.UTF_8);
+        if (nome.length() > TAMANHO_MAXIMO_NOME) {
+            throw new IllegalArgumentException("Chave longa demais para o sistema de arquivos: " + chave);
+        }
+        String hash = ConteudoImagemService.calcularHash(chave.getBytes(StandardCharsets.UTF_8));
+        return objetos.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(nome);
+    }
+
+    private static <T> CompletableFuture<T> executar(Operacao<T> operacao) {
+        try {
+            return CompletableFuture.completedFuture(operacao.executar());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operacao<T> {
+        T executar() throws Exception;
+    }
+
+    /** Trecho [posicao, fim) do arquivo, com leituras posicionais no canal. */
+    private static class TrechoArquivo extends InputStream {
+        private final FileChannel canal;
+        private final long fim;
+        private long posicao;
+
+        private TrechoArquivo(FileChannel canal, long inicio, long fim) {
+            this.canal = canal;
+            this.posicao = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : um[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] destino, int deslocamento, int quantidade) throws IOException {
+            if (quantidade == 0) {
+                return 0;
+            }
+            long restante = fim - posicao;
+            if (restante <= 0) {
+                return -1;
+            }
+            int lidos = canal.read(ByteBuffer.wrap(destino, deslocamento, (int) Math.min(quantidade, restante)), posicao);
+            if (lidos > 0) {
+                posicao += lidos;
+            }
+            return lidos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
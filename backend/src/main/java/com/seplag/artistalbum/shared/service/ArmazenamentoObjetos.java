@@ -0,0 +1,54 @@
+package com.seplag.artistalbum.shared.service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Onde os objetos (capas, fotos, derivados) ficam de fato. O {@link MinioService} é a fachada usada pelos serviços;
+ * a implementação é escolhida por {@code armazenamento.tipo}: {@code minio} ({@link ArmazenamentoAsyncService}, padrão)
+ * ou {@code sistema-arquivos} ({@link ArmazenamentoLocalService}, nó único).
+ */
+public interface ArmazenamentoObjetos {
+
+    /** Prepara o destino (bucket, diretório) uma única vez; uma falha não fica memorizada. */
+    CompletableFuture<Void> preparar();
+
+    /** Grava {@code tamanho} bytes de {@code dados}; o stream precisa continuar aberto até o futuro terminar. */
+    CompletableFuture<Void> enviar(String chave, InputStream dados, long tamanho, String tipoConteudo);
+
+    /** Objeto inteiro ({@code tamanho} nulo) ou só o trecho [inicio, inicio + tamanho). Quem recebe fecha o stream. */
+    CompletableFuture<InputStream> abrir(String chave, long inicio, Long tamanho);
+
+    CompletableFuture<MinioService.ObjetoInfo> obterInfo(String chave);
+
+    /** Remover uma chave que não existe não é erro. */
+    CompletableFuture<Void> remover(String chave);
+
+    /** Remove as chaves em lote e devolve as que não foram removidas. */
+    List<String> removerVarios(Collection<String> chaves) throws Exception;
+
+    /** Listagem recursiva e preguiçosa sob {@code prefixo}; quem consome fecha o stream. */
+    Stream<MinioService.ObjetoListado> listar(String prefixo, int tamanhoPagina);
+
+    /** URL de leitura com validade, que o cliente usa sem passar pela autenticação da API. */
+    CompletableFuture<String> assinarLeitura(String chave, Duration validade);
+
+    /** URL para o cliente enviar o objeto (PUT) sem o multipart da API. */
+    CompletableFuture<String> assinarEnvio(String chave, Duration validade);
+
+    /** URL estável e sem assinatura; {@link UnsupportedOperationException} quando o armazenamento não tem uma. */
+    String urlPublica(String chave);
+
+    /**
+     * Arquivo local com o conteúdo da chave, para quem pode entregá-lo sem copiar pela JVM; {@code null} quando
+     * o objeto não está no disco desta máquina.
+     */
+    default Path arquivoLocal(String chave) {
+        return null;
+    }
+}
@@ -0,0 +1,287 @@
+package com.seplag.artistalbum.shared.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Camada de cache em disco local para objetos do MinIO, persistente entre reinícios.
+ * O arquivo é nomeado pelo hash de (chave, ETag): uma versão nova do objeto nunca reaproveita o arquivo antigo,
+ * que só sai pela remoção LRU por total de bytes. O preenchimento grava num temporário e renomeia atomicamente,
+ * roda num pool próprio e é feito uma vez só por (chave, ETag), por mais requisições que faltem ao mesmo tempo.
+ * Desligado quando {@code imagem.cache.disco.diretorio} está vazio.
+ */
+@Service
+public class CacheDiscoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheDiscoService.class);
+    private static final String SUFIXO_TEMPORARIO = ".tmp";
+
+    private final Path diretorio;
+    private final long tamanhoMaximo;
+    // Nome do arquivo -> tamanho, em ordem de acesso (mais antigo primeiro)
+    private final LinkedHashMap<String, Long> indice = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // Nome do arquivo -> preenchimento em andamento
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> preenchimentos = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter remocoes;
+
+    public CacheDiscoService(@Value("${imagem.cache.disco.diretorio:}") String diretorio,
+                             @Value("${imagem.cache.disco.tamanho-maximo:1GB}") DataSize tamanhoMaximo,
+                             @Value("${imagem.cache.disco.preenchimento-threads:2}") int threads,
+                             MeterRegistry meterRegistry) throws IOException {
+        this.diretorio = diretorio == null || diretorio.isBlank() ? null : Path.of(diretorio);
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "imagem-cache-disco");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acertos = Counter.builder("imagem.disco.gets").tag("result", "hit").register(meterRegistry);
+        this.faltas = Counter.builder("imagem.disco.gets").tag("result", "miss").register(meterRegistry);
+        this.remocoes = Counter.builder("imagem.disco.evictions").register(meterRegistry);
+        Gauge.builder("imagem.disco.bytes", this, CacheDiscoService::getTotalBytes).register(meterRegistry);
+        if (this.diretorio != null) {
+            Files.createDirectories(this.diretorio);
+            reconstruirIndice();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public boolean habilitado() {
+        return diretorio != null;
+    }
+
+    /** Arquivo local da versão {@code info} de {@code chave}; {@code null} quando ainda não foi baixado. */
+    public Path buscar(String chave, MinioService.ObjetoInfo info) {
+        Path arquivo = presente(nomeArquivo(chave, info.etag()));
+        if (arquivo == null) {
+            faltas.increment();
+            return null;
+        }
+        acertos.increment();
+        marcarAcesso(arquivo);
+        return arquivo;
+    }
+
+    /**
+     * Devolve o arquivo local da versão {@code info} de {@code chave}, baixando-o com {@code leitor} se preciso.
+     */
+    public Path obter(String chave, MinioService.ObjetoInfo info, CacheImagemService.LeitorObjeto leitor) throws IOException {
+        Path arquivo = buscar(chave, info);
+        if (arquivo != null) {
+            return arquivo;
+        }
+        try {
+            return preencher(chave, info, leitor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Baixa a versão {@code info} de {@code chave} para o disco fora da requisição, para as próximas a encontrarem;
+     * sem efeito se ela já está sendo baixada. Falhas são só registradas.
+     */
+    public void preencherEmSegundoPlano(String chave, MinioService.ObjetoInfo info, CacheImagemService.LeitorObjeto leitor) {
+        preencher(chave, info, leitor);
+    }
+
+    private CompletableFuture<Path> preencher(String chave, MinioService.ObjetoInfo info, CacheImagemService.LeitorObjeto leitor) {
+        String nome = nomeArquivo(chave, info.etag());
+        CompletableFuture<Path> preenchimento = new CompletableFuture<>();
+        CompletableFuture<Path> emAndamento = preenchimentos.putIfAbsent(nome, preenchimento);
+        if (emAndamento != null) {
+            return emAndamento;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    preenchimento.complete(baixar(nome, chave, info, leitor));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Falha ao preencher o cache de imagens em disco: {}", chave, e);
+                    preenchimento.completeExceptionally(e);
+                } finally {
+                    preenchimentos.remove(nome, preenchimento);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            preenchimentos.remove(nome, preenchimento);
+            preenchimento.completeExceptionally(e);
+        }
+        return preenchimento;
+    }
+
+    private Path baixar(String nome, String chave, MinioService.ObjetoInfo info,
+                        CacheImagemService.LeitorObjeto leitor) throws IOException {
+        // Outro preenchimento pode ter terminado entre a falta e este
+        Path existente = presente(nome);
+        if (existente != null) {
+            return existente;
+        }
+        Path arquivo = diretorio.resolve(nome);
+        Path temporario = Files.createTempFile(diretorio, nome + "-", SUFIXO_TEMPORARIO);
+        try {
+            try (InputStream entrada = leitor.abrir(chave, info.tamanho());
+                 OutputStream saida = Files.newOutputStream(temporario, StandardOpenOption.TRUNCATE_EXISTING)) {
+                entrada.transferTo(saida);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Falha ao ler objeto do MinIO: " + chave, e);
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+        registrar(nome, Files.size(arquivo));
+        return arquivo;
+    }
+
+    private Path presente(String nome) {
+        Path arquivo = diretorio.resolve(nome);
+        boolean registrado;
+        synchronized (this) {
+            registrado = indice.get(nome) != null;
+        }
+        return registrado && Files.exists(arquivo) ? arquivo : null;
+    }
+
+    /**
+     * Copia o trecho [inicio, inicio + quantidade) do arquivo com {@link FileChannel#transferTo}.
+     */
+    public static void escrever(Path arquivo, OutputStream saida, long inicio, long quantidade) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            WritableByteChannel destino = Channels.newChannel(saida);
+            long posicao = inicio;
+            long restante = quantidade;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicao, restante, destino);
+                if (enviados <= 0) {
+                    throw new IOException("Arquivo do cache menor que o esperado: " + arquivo);
+                }
+                posicao += enviados;
+                restante -= enviados;
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized void registrar(String nome, long tamanho) {
+        Long anterior = indice.put(nome, tamanho);
+        totalBytes += tamanho - (anterior != null ? anterior : 0);
+        Iterator<Map.Entry<String, Long>> antigos = indice.entrySet().iterator();
+        while (totalBytes > tamanhoMaximo && antigos.hasNext()) {
+            Map.Entry<String, Long> maisAntigo = antigos.next();
+            if (maisAntigo.getKey().equals(nome)) {
+                continue;
+            }
+            antigos.remove();
+            totalBytes -= maisAntigo.getValue();
+            remocoes.increment();
+            // Leituras em andamento mantêm o arquivo aberto; o unlink não as interrompe
+            try {
+                Files.deleteIfExists(diretorio.resolve(maisAntigo.getKey()));
+            } catch (IOException e) {
+                log.warn("Falha ao remover arquivo do cache de imagens: {}", maisAntigo.getKey(), e);
+            }
+        }
+    }
+
+    private void marcarAcesso(Path arquivo) {
+        // A data de modificação guarda a ordem LRU para o próximo reinício
+        try {
+            Files.setLastModifiedTime(arquivo, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Falha ao atualizar acesso de {}", arquivo, e);
+        }
+    }
+
+    private void reconstruirIndice() throws IOException {
+        List<Path> arquivos;
+        try (Stream<Path> conteudo = Files.list(diretorio)) {
+            arquivos = conteudo.filter(Files::isRegularFile).toList();
+        }
+        record Existente(String nome, long tamanho, FileTime acesso) {}
+        List<Existente> existentes = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            String nome = arquivo.getFileName().toString();
+            try {
+                if (nome.endsWith(SUFIXO_TEMPORARIO)) {
+                    // Preenchimento interrompido por um reinício
+                    Files.deleteIfExists(arquivo);
+                } else {
+                    existentes.add(new Existente(nome, Files.size(arquivo), Files.getLastModifiedTime(arquivo)));
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Ignorando arquivo do cache de imagens: {}", arquivo, e);
+            }
+        }
+        existentes.sort((a, b) -> a.acesso().compareTo(b.acesso()));
+        for (Existente existente : existentes) {
+            registrar(existente.nome(), existente.tamanho());
+        }
+        log.info("Cache de imagens em disco: {} arquivos, {} bytes em {}", indice.size(), totalBytes, diretorio);
+    }
+
+    private static String nomeArquivo(String chave, String etag) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(chave.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+            sha256.update(String.valueOf(etag).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
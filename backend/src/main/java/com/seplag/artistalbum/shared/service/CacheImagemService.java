@@ -0,0 +1,138 @@
+package com.seplag.artistalbum.shared.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.time.Duration;
+
+/**
+ * Cache em memória fora do heap (ByteBuffer direto) dos bytes das imagens mais acessadas, por chave do objeto.
+ * Limitado pelo total de bytes; a remoção do Caffeine (W-TinyLFU) considera a frequência de acesso,
+ * então capas populares não são expulsas por uma varredura de imagens vistas uma única vez.
+ * A memória de uma entrada removida é liberada quando o GC coleta o buffer (limite em -XX:MaxDirectMemorySize).
+ */
+@Service
+public class CacheImagemService {
+
+    private final Cache<String, ImagemEmCache> imagens;
+    private final long tamanhoMaximoObjeto;
+
+    public CacheImagemService(@Value("${imagem.cache.memoria.tamanho-maximo:64MB}") DataSize tamanhoMaximo,
+                              @Value("${imagem.cache.memoria.tamanho-maximo-objeto:2MB}") DataSize tamanhoMaximoObjeto,
+                              @Value("${imagem.cache.memoria.validade:10m}") Duration validade,
+                              MeterRegistry meterRegistry) {
+        this.tamanhoMaximoObjeto = tamanhoMaximoObjeto.toBytes();
+        this.imagens = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximo.toBytes())
+                .weigher((String chave, ImagemEmCache imagem) -> imagem.dados().capacity())
+                // Outra instância pode sobrescrever a mesma chave; a validade limita quanto tempo servimos a versão antiga
+                .expireAfterWrite(validade)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, imagens, "imagem.memoria");
+    }
+
+    public ImagemEmCache obter(String chave) {
+        return imagens.getIfPresent(chave);
+    }
+
+    public boolean cabe(long tamanho) {
+        return tamanho > 0 && tamanho <= tamanhoMaximoObjeto;
+    }
+
+    /**
+     * Lê o objeto inteiro para um buffer direto e guarda no cache.
+     * Requisições simultâneas para a mesma chave compartilham uma única leitura.
+     */
+    public ImagemEmCache carregar(String chave, MinioService.ObjetoInfo info, LeitorObjeto leitor) throws IOException {
+        try {
+            // compute (e não computeIfAbsent) para não contar uma segunda falta além da de obter()
+            return imagens.asMap().compute(chave, (k, atual) -> atual != null ? atual : ler(k, info, leitor));
+        } catch (FalhaLeitura e) {
+            throw e.causa;
+        }
+    }
+
+    public void invalidar(String chave) {
+        imagens.invalidate(chave);
+    }
+
+    private ImagemEmCache ler(String chave, MinioService.ObjetoInfo info, LeitorObjeto leitor) {
+        ByteBuffer dados = ByteBuffer.allocateDirect(Math.toIntExact(info.tamanho()));
+        byte[] bloco = new byte[8192];
+        try (InputStream entrada = leitor.abrir(chave, info.tamanho())) {
+            int lidos;
+            while (dados.hasRemaining() && (lidos = entrada.read(bloco, 0, Math.min(bloco.length, dados.remaining()))) != -1) {
+                dados.put(bloco, 0, lidos);
+            }
+        } catch (IOException e) {
+            throw new FalhaLeitura(e);
+        } catch (Exception e) {
+            throw new FalhaLeitura(new IOException("Falha ao ler objeto do MinIO: " + chave, e));
+        }
+        if (dados.hasRemaining()) {
+            throw new FalhaLeitura(new IOException("Objeto truncado no MinIO: " + chave));
+        }
+        dados.flip();
+        return new ImagemEmCache(info, dados.asReadOnlyBuffer());
+    }
+
+    @FunctionalInterface
+    public interface LeitorObjeto {
+        InputStream abrir(String chave, long tamanho) throws Exception;
+    }
+
+    public record ImagemEmCache(MinioService.ObjetoInfo info, ByteBuffer dados) {
+
+        /** Copia o trecho [inicio, inicio + quantidade) para a saída sem alterar o buffer compartilhado. */
+        public void escrever(OutputStream saida, long inicio, long quantidade) throws IOException {
+            ByteBuffer trecho = dados.duplicate();
+            trecho.position(Math.toIntExact(inicio));
+            trecho.limit(Math.toIntExact(inicio + quantidade));
+            Channels.newChannel(saida).write(trecho);
+        }
+
+        /** Lê o conteúdo inteiro sem alterar o buffer compartilhado. */
+        public InputStream abrir() {
+            ByteBuffer restante = dados.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return restante.hasRemaining() ? restante.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] destino, int inicio, int tamanho) {
+                    if (tamanho == 0) {
+                        return 0;
+                    }
+                    if (!restante.hasRemaining()) {
+                        return -1;
+                    }
+                    int quantidade = Math.min(tamanho, restante.remaining());
+                    restante.get(destino, inicio, quantidade);
+                    return quantidade;
+                }
+            };
+        }
+    }
+
+    private static class FalhaLeitura extends RuntimeException {
+        private final IOException causa;
+
+        FalhaLeitura(IOException causa) {
+            super(causa);
+            this.causa = causa;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.seplag.artistalbum.shared.service;
+
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.service.BandaService;
+import com.seplag.artistalbum.shared.dto.CatalogoAlteracoesDTO;
+import com.seplag.artistalbum.shared.dto.CatalogoExclusaoDTO;
+import com.seplag.artistalbum.shared.repository.CatalogoExclusaoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consulta incremental do catálogo. A entrega é "pelo menos uma vez": a janela começa {@code margem} antes do token,
+ * então o cliente pode receber de novo itens que já tinha e deve aplicá-los por id (a última versão vence).
+ */
+@Service
+public class CatalogoAlteracoesService {
+
+    private final ArtistaService artistaService;
+    private final AlbumService albumService;
+    private final BandaService bandaService;
+    private final CatalogoExclusaoRepository catalogoExclusaoRepository;
+    private final Duration margem;
+
+    public CatalogoAlteracoesService(ArtistaService artistaService,
+                                     AlbumService albumService,
+                                     BandaService bandaService,
+                                     CatalogoExclusaoRepository catalogoExclusaoRepository,
+                                     @Value("${catalogo.alteracoes.margem:5s}") Duration margem) {
+        this.artistaService = artistaService;
+        this.albumService = albumService;
+        this.bandaService = bandaService;
+        this.catalogoExclusaoRepository = catalogoExclusaoRepository;
+        this.margem = margem;
+    }
+
+    @Transactional(readOnly = true)
+    public CatalogoAlteracoesDTO obterAlteracoesDesde(LocalDateTime token) {
+        // O próximo token vem do relógio do banco, antes das consultas; a margem cobre transações que começaram
+        // antes do token mas só fizeram commit depois dele (e a diferença para o relógio da aplicação, que carimba
+        // dataAtualizacao nas entidades).
+        LocalDateTime proximoToken = catalogoExclusaoRepository.agora();
+        LocalDateTime desde = token.minus(margem);
+
+        List<CatalogoExclusaoDTO> exclusoes = catalogoExclusaoRepository
+                .findByDataExclusaoAfterOrderByDataExclusaoAsc(desde)
+                .stream()
+                .map(exclusao -> new CatalogoExclusaoDTO(
+                        exclusao.getEntidade(),
+                        exclusao.getIdEntidade(),
+                        exclusao.getDataExclusao()))
+                .toList();
+
+        return new CatalogoAlteracoesDTO(
+                proximoToken.toString(),
+                artistaService.listarAlteradosDesde(desde),
+                albumService.listarAlteradosDesde(desde),
+                bandaService.listarAlteradasDesde(desde),
+                exclusoes
+        );
+    }
+}
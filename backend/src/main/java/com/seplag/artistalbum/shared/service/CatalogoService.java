@@ -1,31 +1,219 @@
 package com.seplag.artistalbum.shared.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
 import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.dto.ArtistaResponseDTO;
 import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.dto.BandaResponseDTO;
 import com.seplag.artistalbum.domain.banda.service.BandaService;
 import com.seplag.artistalbum.shared.dto.CatalogoResponseDTO;
+import com.seplag.artistalbum.shared.websocket.UpdateMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mantém o catálogo completo em um snapshot imutável em memória.
+ * A leitura devolve sempre o último snapshot publicado; escritas nos domínios
+ * (as mesmas que notificam {@code /topic/updates}) apenas incrementam a versão
+ * e disparam a reconstrução em segundo plano, que troca o snapshot atomicamente.
+ */
 @Service
 public class CatalogoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoService.class);
+
     private final ArtistaService artistaService;
     private final AlbumService albumService;
     private final BandaService bandaService;
+    private final Duration idadeMaxima;
+    private final boolean carregamentoParalelo;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
 
-    public CatalogoService(ArtistaService artistaService, AlbumService albumService, BandaService bandaService) {
+    private final AtomicReference<CatalogoSnapshot> snapshotAtual = new AtomicReference<>();
+    private final AtomicLong versaoAtual = new AtomicLong();
+    private final AtomicBoolean reconstrucaoAgendada = new AtomicBoolean(false);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalogo-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Uma thread por seção; cada seção abre a própria transação curta somente leitura
+    private final ExecutorService executorSecoes = Executors.newFixedThreadPool(3, r -> {
+        Thread thread = new Thread(r, "catalogo-secao");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogoService(ArtistaService artistaService,
+                           AlbumService albumService,
+                           BandaService bandaService,
+                           @Value("${catalogo.snapshot.idade-maxima:15m}") Duration idadeMaxima,
+                           @Value("${catalogo.carregamento.paralelo:true}") boolean carregamentoParalelo,
+                           MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper) {
         this.artistaService = artistaService;
         this.albumService = albumService;
         this.bandaService = bandaService;
+        this.idadeMaxima = idadeMaxima;
+        this.carregamentoParalelo = carregamentoParalelo;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
     }
 
-    @Transactional(readOnly = true)
     public CatalogoResponseDTO obterCatalogoCompleto() {
+        return obterSnapshot().catalogo();
+    }
+
+    public CatalogoSnapshot obterSnapshot() {
+        CatalogoSnapshot snapshot = snapshotAtual.get();
+        if (snapshot == null) {
+            return reconstruirNaPrimeiraLeitura();
+        }
+        // URLs assinadas expiram em 30 minutos, então o snapshot também envelhece
+        boolean expirado = snapshot.geradoEm().plus(idadeMaxima).isBefore(Instant.now());
+        if (snapshot.versao() < versaoAtual.get() || expirado) {
+            agendarReconstrucao();
+        }
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAtualizarCatalogo(UpdateMessage mensagem) {
+        versaoAtual.incrementAndGet();
+        agendarReconstrucao();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecerSnapshot() {
+        agendarReconstrucao();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+        executorSecoes.shutdownNow();
+    }
+
+    private synchronized CatalogoSnapshot reconstruirNaPrimeiraLeitura() {
+        CatalogoSnapshot snapshot = snapshotAtual.get();
+        return snapshot != null ? snapshot : reconstruirSnapshot();
+    }
+
+    private void agendarReconstrucao() {
+        // Várias escritas seguidas geram no máximo uma reconstrução na fila
+        if (!reconstrucaoAgendada.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            reconstrucaoAgendada.set(false);
+            try {
+                reconstruirSnapshot();
+            } catch (RuntimeException e) {
+                logger.error("Falha ao reconstruir snapshot do catálogo", e);
+            }
+        });
+    }
+
+    private CatalogoSnapshot reconstruirSnapshot() {
+        long versao = versaoAtual.get();
+        CatalogoResponseDTO catalogo = montarCatalogo();
+        // Serializa e comprime uma única vez por versão, fora do caminho da requisição
+        byte[] json = serializar(catalogo);
+        CatalogoSnapshot novo = new CatalogoSnapshot(versao, catalogo, Instant.now(), json, comprimirGzip(json));
+        return snapshotAtual.accumulateAndGet(novo, (atual, candidato) ->
+                atual == null || candidato.versao() >= atual.versao() ? candidato : atual);
+    }
+
+    private CatalogoResponseDTO montarCatalogo() {
+        String modo = carregamentoParalelo ? "paralelo" : "sequencial";
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        CatalogoResponseDTO catalogo = carregamentoParalelo ? montarEmParalelo() : montarSequencial();
+        amostra.stop(meterRegistry.timer("catalogo.montagem", "modo", modo));
+        return catalogo;
+    }
+
+    private CatalogoResponseDTO montarSequencial() {
         return new CatalogoResponseDTO(
-                artistaService.listarTodos(),
-                albumService.listarTodosAlbunsNovo(),
-                bandaService.listarTodas()
+                medirSecao("artistas", artistaService::listarTodos),
+                medirSecao("albuns", albumService::listarTodosAlbunsNovo),
+                medirSecao("bandas", bandaService::listarTodas)
         );
     }
+
+    private CatalogoResponseDTO montarEmParalelo() {
+        CompletableFuture<List<ArtistaResponseDTO>> artistas =
+                CompletableFuture.supplyAsync(() -> medirSecao("artistas", artistaService::listarTodos), executorSecoes);
+        CompletableFuture<List<AlbumDTO>> albuns =
+                CompletableFuture.supplyAsync(() -> medirSecao("albuns", albumService::listarTodosAlbunsNovo), executorSecoes);
+        CompletableFuture<List<BandaResponseDTO>> bandas =
+                CompletableFuture.supplyAsync(() -> medirSecao("bandas", bandaService::listarTodas), executorSecoes);
+        try {
+            return new CatalogoResponseDTO(artistas.join(), albuns.join(), bandas.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private <T> T medirSecao(String secao, Supplier<T> carregador) {
+        String modo = carregamentoParalelo ? "paralelo" : "sequencial";
+        return meterRegistry.timer("catalogo.secao", "secao", secao, "modo", modo).record(carregador);
+    }
+
+    private byte[] serializar(CatalogoResponseDTO catalogo) {
+        try {
+            return objectMapper.writeValueAsBytes(catalogo);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] comprimirGzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(dados.length / 4, 512));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    public record CatalogoSnapshot(long versao, CatalogoResponseDTO catalogo, Instant geradoEm,
+                                   byte[] json, byte[] jsonGzip) {
+
+        // O instante de geração entra na ETag porque a renovação por idade troca as URLs assinadas
+        public String etag() {
+            return "\"" + versao + "-" + geradoEm.toEpochMilli() + "\"";
+        }
+    }
 }
@@ -0,0 +1,82 @@
+package com.seplag.artistalbum.shared.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.service.BandaService;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Escreve o catálogo direto na resposta, linha a linha, sem montar as listas
+ * do {@link com.seplag.artistalbum.shared.dto.CatalogoResponseDTO} em memória.
+ * O JSON produzido tem o mesmo formato do endpoint agregado.
+ */
+@Service
+public class CatalogoStreamService {
+
+    // A cada N linhas o contexto de persistência é limpo para manter o heap estável
+    private static final int LINHAS_POR_LIMPEZA = 200;
+
+    private final ArtistaService artistaService;
+    private final AlbumService albumService;
+    private final BandaService bandaService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public CatalogoStreamService(ArtistaService artistaService,
+                                 AlbumService albumService,
+                                 BandaService bandaService,
+                                 ObjectMapper objectMapper,
+                                 EntityManager entityManager) {
+        this.artistaService = artistaService;
+        this.albumService = albumService;
+        this.bandaService = bandaService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public void escreverCatalogo(OutputStream saida) throws IOException {
+        try (JsonGenerator gerador = objectMapper.createGenerator(saida)) {
+            gerador.writeStartObject();
+
+            gerador.writeArrayFieldStart("artistas");
+            artistaService.percorrerTodos(escritor(gerador));
+            gerador.writeEndArray();
+
+            gerador.writeArrayFieldStart("albuns");
+            albumService.percorrerTodosAlbuns(escritor(gerador));
+            gerador.writeEndArray();
+
+            gerador.writeArrayFieldStart("bandas");
+            bandaService.percorrerTodas(escritor(gerador));
+            gerador.writeEndArray();
+
+            gerador.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> Consumer<T> escritor(JsonGenerator gerador) {
+        int[] linhas = {0};
+        return dto -> {
+            try {
+                gerador.writeObject(dto);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (++linhas[0] % LINHAS_POR_LIMPEZA == 0) {
+                entityManager.clear();
+            }
+        };
+    }
+}
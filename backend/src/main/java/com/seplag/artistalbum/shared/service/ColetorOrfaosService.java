@@ -0,0 +1,265 @@
+package com.seplag.artistalbum.shared.service;
+
+import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
+import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.shared.dto.RelatorioOrfaosDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Remove do bucket os objetos que nenhuma linha referencia (álbuns/artistas excluídos em cascata, capas trocadas
+ * cuja remoção falhou, uploads diretos nunca confirmados). A listagem é consumida página a página e cada página vira
+ * um lote: uma consulta ao banco com as chaves do lote e um DeleteObjects com os órfãos. Os lotes são espaçados
+ * por {@code imagem.orfaos.lotes-por-segundo}, o que também limita o ritmo da listagem.
+ * Objetos mais novos que {@code imagem.orfaos.idade-minima} nunca são removidos: podem ser um envio ainda antes do
+ * commit dos metadados ou um upload direto aguardando confirmação.
+ */
+@Service
+public class ColetorOrfaosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ColetorOrfaosService.class);
+
+    private static final int TAMANHO_AMOSTRA = 100;
+
+    private final MinioService minioService;
+    private final int tamanhoLote;
+    private final long intervaloEntreLotesNanos;
+    private final Duration idadeMinima;
+    private final Duration intervalo;
+    private final boolean simulacaoPadrao;
+    // Prefixo do bucket -> consulta que devolve, dentre as chaves informadas, as que estão referenciadas
+    private final Map<String, Function<Collection<String>, List<String>>> referencias;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+    private final AtomicReference<RelatorioOrfaosDTO> ultimoRelatorio = new AtomicReference<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "coletor-orfaos");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ColetorOrfaosService(MinioService minioService,
+                                AlbumCapaRepository albumCapaRepository,
+                                ArtistaRepository artistaRepository,
+                                ConteudoImagemService conteudoImagem,
+                                @Value("${imagem.orfaos.lote:500}") int tamanhoLote,
+                                @Value("${imagem.orfaos.lotes-por-segundo:2}") double lotesPorSegundo,
+                                @Value("${imagem.orfaos.idade-minima:24h}") Duration idadeMinima,
+                                @Value("${imagem.orfaos.intervalo:24h}") Duration intervalo,
+                                @Value("${imagem.orfaos.simulacao:true}") boolean simulacaoPadrao) {
+        if (tamanhoLote < 1 || tamanhoLote > 1000) {
+            throw new IllegalArgumentException("imagem.orfaos.lote deve estar entre 1 e 1000");
+        }
+        this.minioService = minioService;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloEntreLotesNanos = lotesPorSegundo > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / lotesPorSegundo) : 0;
+        this.idadeMinima = idadeMinima;
+        this.intervalo = intervalo;
+        this.simulacaoPadrao = simulacaoPadrao;
+        this.referencias = Map.of(
+                "album-covers/", albumCapaRepository::findChavesExistentes,
+                "artist-covers/", artistaRepository::findFotosExistentes,
+                // Conteúdo compartilhado: vale a linha de conteudo_imagem, que só some quando a última referência sai
+                ConteudoImagemService.PREFIXO, conteudoImagem::registradas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void agendar() {
+        if (intervalo.isZero() || intervalo.isNegative()) {
+            return;
+        }
+        executor.scheduleWithFixedDelay(() -> executarEmSegundoPlano(simulacaoPadrao), intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /** Dispara uma coleta em segundo plano; {@code false} se já há uma em andamento. */
+    public boolean iniciar(boolean simulacao) {
+        if (emExecucao.get()) {
+            return false;
+        }
+        executor.execute(() -> executarEmSegundoPlano(simulacao));
+        return true;
+    }
+
+    // Uma exceção escapando cancelaria o agendamento periódico
+    private void executarEmSegundoPlano(boolean simulacao) {
+        try {
+            executar(simulacao);
+        } catch (RuntimeException e) {
+            log.warn("Coleta de órfãos falhou: {}", e.getMessage());
+        }
+    }
+
+    public Optional<RelatorioOrfaosDTO> obterUltimoRelatorio() {
+        return Optional.ofNullable(ultimoRelatorio.get());
+    }
+
+    /**
+     * Executa uma coleta completa na thread atual. Com {@code simulacao} nada é removido, só contado.
+     * Vazio quando já há outra coleta em andamento.
+     */
+    public Optional<RelatorioOrfaosDTO> executar(boolean simulacao) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        Contagem contagem = new Contagem(simulacao);
+        RelatorioOrfaosDTO relatorio;
+        try {
+            ZonedDateTime limite = ZonedDateTime.now().minus(idadeMinima);
+            for (Map.Entry<String, Function<Collection<String>, List<String>>> prefixo : referencias.entrySet()) {
+                coletar(prefixo.getKey(), prefixo.getValue(), limite, contagem);
+            }
+            contagem.concluido = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            relatorio = contagem.paraRelatorio();
+            ultimoRelatorio.set(relatorio);
+            emExecucao.set(false);
+            log.info("Coleta de órfãos ({}): {} listados, {} órfãos ({} bytes), {} removidos, {} falhas{}",
+                    simulacao ? "simulação" : "remoção", contagem.objetosListados, contagem.orfaos,
+                    contagem.bytesOrfaos, contagem.removidos, contagem.falhas,
+                    contagem.concluido ? "" : " (interrompida)");
+        }
+        return Optional.of(relatorio);
+    }
+
+    private void coletar(String prefixo, Function<Collection<String>, List<String>> referenciadas,
+                         ZonedDateTime limite, Contagem contagem) throws InterruptedException {
+        try (Stream<MinioService.ObjetoListado> objetos = minioService.listFiles(prefixo, tamanhoLote)) {
+            Iterator<MinioService.ObjetoListado> iterador = objetos.iterator();
+            List<MinioService.ObjetoListado> lote = new ArrayList<>(tamanhoLote);
+            long proximoLote = System.nanoTime();
+            while (iterador.hasNext()) {
+                MinioService.ObjetoListado objeto = iterador.next();
+                contagem.objetosListados++;
+                if (objeto.ultimaModificacao().isAfter(limite)) {
+                    contagem.objetosRecentes++;
+                    continue;
+                }
+                lote.add(objeto);
+                if (lote.size() == tamanhoLote) {
+                    proximoLote = aguardarVez(proximoLote);
+                    processarLote(lote, referenciadas, contagem);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                aguardarVez(proximoLote);
+                processarLote(lote, referenciadas, contagem);
+            }
+        }
+    }
+
+    private void processarLote(List<MinioService.ObjetoListado> lote,
+                               Function<Collection<String>, List<String>> referenciadas, Contagem contagem) {
+        // Um derivado (chave@256.jpg) vive enquanto o original for referenciado. A própria chave também é consultada:
+        // uma capa antiga pode ter sido enviada com um nome que parece de derivado
+        Set<String> consulta = new HashSet<>();
+        for (MinioService.ObjetoListado objeto : lote) {
+            consulta.add(objeto.chave());
+            String original = DerivadosImagemService.chaveOriginal(objeto.chave());
+            if (original != null) {
+                consulta.add(original);
+            }
+        }
+        Set<String> referenciados = new HashSet<>(referenciadas.apply(consulta));
+
+        List<String> orfaos = new ArrayList<>();
+        for (MinioService.ObjetoListado objeto : lote) {
+            String original = DerivadosImagemService.chaveOriginal(objeto.chave());
+            if (referenciados.contains(objeto.chave()) || (original != null && referenciados.contains(original))) {
+                continue;
+            }
+            orfaos.add(objeto.chave());
+            contagem.bytesOrfaos += objeto.tamanho();
+            if (contagem.amostra.size() < TAMANHO_AMOSTRA) {
+                contagem.amostra.add(objeto.chave());
+            }
+        }
+        contagem.orfaos += orfaos.size();
+        if (contagem.simulacao || orfaos.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<String> falhas = minioService.deleteFiles(orfaos);
+            contagem.removidos += orfaos.size() - falhas.size();
+            contagem.falhas += falhas.size();
+        } catch (Exception e) {
+            // O lote fica para a próxima coleta
+            log.warn("Falha ao remover lote de {} órfãos: {}", orfaos.size(), e.getMessage());
+            contagem.falhas += orfaos.size();
+        }
+    }
+
+    /** Espera até o horário do lote e devolve o do seguinte. */
+    private long aguardarVez(long proximoLote) throws InterruptedException {
+        long espera = proximoLote - System.nanoTime();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+        return Math.max(proximoLote, System.nanoTime()) + intervaloEntreLotesNanos;
+    }
+
+    private static class Contagem {
+        private final boolean simulacao;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final List<String> amostra = new ArrayList<>();
+        private boolean concluido;
+        private long objetosListados;
+        private long objetosRecentes;
+        private long orfaos;
+        private long bytesOrfaos;
+        private long removidos;
+        private long falhas;
+
+        private Contagem(boolean simulacao) {
+            this.simulacao = simulacao;
+        }
+
+        private RelatorioOrfaosDTO paraRelatorio() {
+            RelatorioOrfaosDTO relatorio = new RelatorioOrfaosDTO();
+            relatorio.setSimulacao(simulacao);
+            relatorio.setConcluido(concluido);
+            relatorio.setInicio(inicio);
+            relatorio.setFim(LocalDateTime.now());
+            relatorio.setObjetosListados(objetosListados);
+            relatorio.setObjetosRecentes(objetosRecentes);
+            relatorio.setOrfaos(orfaos);
+            relatorio.setBytesOrfaos(bytesOrfaos);
+            relatorio.setRemovidos(removidos);
+            relatorio.setFalhas(falhas);
+            relatorio.setAmostraOrfaos(List.copyOf(amostra));
+            return relatorio;
+        }
+    }
+}
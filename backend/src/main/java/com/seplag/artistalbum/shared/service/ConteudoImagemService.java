@@ -0,0 +1,204 @@
+package com.seplag.artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.model.ConteudoImagemModel;
+import com.seplag.artistalbum.shared.repository.ConteudoImagemRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Imagens endereçadas pelo conteúdo: a chave do objeto é o SHA-256 dos bytes, então o mesmo arquivo enviado para
+ * vários álbuns/artistas é armazenado uma vez só e o objeto de uma chave nunca muda. A tabela {@code conteudo_imagem}
+ * conta as linhas que apontam para cada chave (por trigger); o objeto sai do MinIO quando a contagem chega a zero.
+ * Chaves fora de {@link #PREFIXO} (anteriores a isso ou de upload direto) pertencem a uma única linha.
+ */
+@Service
+public class ConteudoImagemService {
+
+    public static final String PREFIXO = "conteudo/";
+
+    private final ConteudoImagemRepository conteudoImagemRepository;
+    private final TransferenciaImagensService transferenciaImagens;
+    private final TransactionTemplate transacao;
+
+    public ConteudoImagemService(ConteudoImagemRepository conteudoImagemRepository,
+                                 TransferenciaImagensService transferenciaImagens,
+                                 TransactionTemplate transacao) {
+        this.conteudoImagemRepository = conteudoImagemRepository;
+        this.transferenciaImagens = transferenciaImagens;
+        this.transacao = transacao;
+    }
+
+    /** SHA-256 (hex) lido em stream, sem segurar o conteúdo em memória. */
+    public static String calcularHash(InputStream dados) throws IOException {
+        MessageDigest sha256 = novoDigest();
+        try (DigestInputStream entrada = new DigestInputStream(dados, sha256)) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    public static String calcularHash(byte[] dados) {
+        return HexFormat.of().formatHex(novoDigest().digest(dados));
+    }
+
+    // Os dois primeiros caracteres espalham as chaves por "diretórios" no console do MinIO
+    public static String chave(String hash) {
+        return PREFIXO + hash.substring(0, 2) + "/" + hash;
+    }
+
+    public static boolean enderecadaPorConteudo(String chave) {
+        return chave != null && chave.startsWith(PREFIXO);
+    }
+
+    /**
+     * Tipo detectado no envio de uma chave endereçada pelo conteúdo (que não tem extensão para indicá-lo);
+     * {@code null} para as demais chaves ou quando não foi registrado.
+     */
+    public String tipoConteudo(String chave) {
+        if (!enderecadaPorConteudo(chave)) {
+            return null;
+        }
+        String hash = chave.substring(chave.lastIndexOf('/') + 1);
+        return conteudoImagemRepository.findById(hash).map(ConteudoImagemModel::getTipoConteudo).orElse(null);
+    }
+
+    /** Dos hashes informados, os que já têm objeto no MinIO e não precisam ser enviados de novo. */
+    public Set<String> armazenados(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(conteudoImagemRepository.findHashesExistentes(hashes));
+    }
+
+    /**
+     * Na transação dos metadados, antes de gravar as linhas que apontam para o conteúdo: cria a linha do conteúdo se
+     * preciso e a trava até o commit, para que uma liberação concorrente não apague o objeto. Se o objeto não foi
+     * enviado nesta requisição ({@code enviado} falso) e a linha sumiu desde {@link #armazenados}, ele pode já ter
+     * sido removido e a operação falha. A trava do hash, segura até o commit, faz uma compensação concorrente
+     * ({@link #descartarNaoRegistrados}) esperar esta transação terminar antes de decidir se o objeto fica.
+     */
+    public void reservar(Conteudo conteudo, boolean enviado) {
+        conteudoImagemRepository.travarHash(conteudo.hash());
+        if (conteudoImagemRepository.travar(conteudo.hash()) > 0) {
+            return;
+        }
+        if (!enviado) {
+            throw new IllegalStateException("Imagem removida durante o envio; tente novamente. hash=" + conteudo.hash());
+        }
+        conteudoImagemRepository.inserir(conteudo.hash(), conteudo.chave(), conteudo.tamanho(), conteudo.tipoConteudo());
+        // Se outra requisição inseriu antes, o INSERT não fez nada; a trava vale do mesmo jeito
+        conteudoImagemRepository.travar(conteudo.hash());
+    }
+
+    /**
+     * Na transação, depois de desfazer as referências às {@code chaves}: os objetos que ficaram sem nenhuma
+     * (e seus derivados) saem do MinIO após o commit. Entre o commit e a remoção, outra requisição pode enviar o
+     * mesmo conteúdo de novo e registrá-lo; por isso a remoção de uma chave endereçada pelo conteúdo espera a trava
+     * do hash e só apaga o objeto se ele continua sem linha, como em {@link #descartarNaoRegistrados}.
+     */
+    public void liberar(Collection<String> chaves) {
+        List<String> avulsas = new ArrayList<>();
+        Set<String> enderecadas = new HashSet<>();
+        for (String chave : chaves) {
+            if (chave == null || chave.isBlank()) {
+                continue;
+            }
+            if (enderecadaPorConteudo(chave)) {
+                enderecadas.add(chave);
+            } else {
+                avulsas.add(chave);
+            }
+        }
+
+        transferenciaImagens.removerAposCommit(DerivadosImagemService.comDerivados(avulsas));
+        if (!enderecadas.isEmpty()) {
+            // As referências só são descontadas (pelo trigger) quando as alterações chegam ao banco
+            conteudoImagemRepository.flush();
+            List<String> semReferencias = conteudoImagemRepository.findSemReferenciasParaRemocao(enderecadas);
+            if (!semReferencias.isEmpty()) {
+                conteudoImagemRepository.removerPorChaves(semReferencias);
+                transferenciaImagens.executarAposCommit(() -> transacao.executeWithoutResult(status ->
+                        transferenciaImagens.removerTodos(DerivadosImagemService.comDerivados(travarSemLinha(semReferencias)))));
+            }
+        }
+    }
+
+    /**
+     * Compensação de uma transação que falhou depois do envio: remove os objetos enviados que continuam sem linha.
+     * Com a trava de cada hash (a mesma de {@link #reservar}), uma requisição que enviou o mesmo conteúdo e ainda
+     * não fez commit termina antes da verificação, e o objeto que ela registrou fica. As travas duram até a remoção
+     * terminar, então quem reservar o hash depois disso já vê o resultado.
+     */
+    @Transactional
+    public void descartarNaoRegistrados(Collection<String> chaves) {
+        transferenciaImagens.removerTodos(travarSemLinha(chaves));
+    }
+
+    /**
+     * Trava o hash de cada chave endereçada pelo conteúdo e devolve, das {@code chaves}, as que seguem sem linha
+     * (as demais chaves vêm sempre). A remoção deve acontecer antes do fim da transação, com as travas seguras.
+     */
+    private List<String> travarSemLinha(Collection<String> chaves) {
+        // Em ordem de hash, para duas compensações nunca esperarem uma pela outra
+        TreeMap<String, String> porHash = new TreeMap<>();
+        List<String> remover = new ArrayList<>();
+        for (String chave : chaves) {
+            if (enderecadaPorConteudo(chave)) {
+                porHash.put(chave.substring(chave.lastIndexOf('/') + 1), chave);
+            } else {
+                remover.add(chave);
+            }
+        }
+        if (!porHash.isEmpty()) {
+            porHash.keySet().forEach(conteudoImagemRepository::travarHash);
+            Set<String> registradas = new HashSet<>(conteudoImagemRepository.findChavesExistentes(porHash.values()));
+            porHash.values().stream().filter(chave -> !registradas.contains(chave)).forEach(remover::add);
+        }
+        return remover;
+    }
+
+    /** Das chaves informadas, as que têm linha de conteúdo (usado pela coleta de órfãos). */
+    public List<String> registradas(Collection<String> chaves) {
+        return conteudoImagemRepository.findChavesExistentes(chaves);
+    }
+
+    private static MessageDigest novoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    public record Conteudo(String hash, String chave, long tamanho, String tipoConteudo) {
+
+        public static Conteudo de(String hash, long tamanho, String tipoConteudo) {
+            return new Conteudo(hash, ConteudoImagemService.chave(hash), tamanho, tipoConteudo);
+        }
+
+        /** Hash e tamanho numa só leitura, para quando o tamanho só se conhece lendo (conteúdo filtrado). */
+        public static Conteudo ler(InputStream dados, String tipoConteudo) throws IOException {
+            MessageDigest sha256 = novoDigest();
+            long tamanho;
+            try (DigestInputStream entrada = new DigestInputStream(dados, sha256)) {
+                tamanho = entrada.transferTo(OutputStream.nullOutputStream());
+            }
+            return de(HexFormat.of().formatHex(sha256.digest()), tamanho, tipoConteudo);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.seplag.artistalbum.shared.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Miniaturas JPEG de tamanho fixo (lado maior em 64/256/1024 px) das capas e fotos, gravadas ao lado do original
+ * em {@code <chave>@<tamanho>.jpg}. A geração roda fora da requisição, depois do commit de quem enviou a imagem;
+ * a reamostragem descarta EXIF/ICC e demais metadados do original.
+ */
+@Service
+public class DerivadosImagemService {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivadosImagemService.class);
+
+    public static final List<Integer> TAMANHOS = List.of(64, 256, 1024);
+    private static final long PIXELS_MAXIMO = 40_000_000L;
+    private static final float QUALIDADE_JPEG = 0.85f;
+    private static final int LADO_PLACEHOLDER = 16;
+    private static final float QUALIDADE_PLACEHOLDER = 0.5f;
+    private static final String PREFIXO_PLACEHOLDER = "data:image/jpeg;base64,";
+    public static final int TAMANHO_MAXIMO_PLACEHOLDER = 2000;
+
+    private final MinioService minioService;
+    private final ExecutorService executor;
+
+    public DerivadosImagemService(MinioService minioService,
+                                  @Value("${imagem.derivados.threads:2}") int threads) {
+        this.minioService = minioService;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "imagem-derivados");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tipo real da imagem pelos bytes iniciais (JPEG, PNG, GIF ou WebP); {@code null} para qualquer outra coisa.
+     */
+    public static String detectarTipo(byte[] dados) {
+        if (dados == null || dados.length < 12) {
+            return null;
+        }
+        if ((dados[0] & 0xFF) == 0xFF && (dados[1] & 0xFF) == 0xD8 && (dados[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if ((dados[0] & 0xFF) == 0x89 && dados[1] == 'P' && dados[2] == 'N' && dados[3] == 'G'
+                && dados[4] == 0x0D && dados[5] == 0x0A && dados[6] == 0x1A && dados[7] == 0x0A) {
+            return "image/png";
+        }
+        if (dados[0] == 'G' && dados[1] == 'I' && dados[2] == 'F' && dados[3] == '8'
+                && (dados[4] == '7' || dados[4] == '9') && dados[5] == 'a') {
+            return "image/gif";
+        }
+        if (dados[0] == 'R' && dados[1] == 'I' && dados[2] == 'F' && dados[3] == 'F'
+                && dados[8] == 'W' && dados[9] == 'E' && dados[10] == 'B' && dados[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    /** Como {@link #detectarTipo(byte[])}, lendo só os bytes iniciais do stream. */
+    public static String detectarTipo(InputStream entrada) throws IOException {
+        return detectarTipo(entrada.readNBytes(12));
+    }
+
+    public static String chaveDerivado(String chave, int tamanho) {
+        return chave + "@" + tamanho + ".jpg";
+    }
+
+    public static List<String> chavesDerivados(String chave) {
+        return TAMANHOS.stream().map(tamanho -> chaveDerivado(chave, tamanho)).toList();
+    }
+
+    /** Chave do original de um derivado; {@code null} se {@code chave} não tem o formato de derivado. */
+    public static String chaveOriginal(String chave) {
+        for (int tamanho : TAMANHOS) {
+            String sufixo = "@" + tamanho + ".jpg";
+            if (chave.endsWith(sufixo) && chave.length() > sufixo.length()) {
+                return chave.substring(0, chave.length() - sufixo.length());
+            }
+        }
+        return null;
+    }
+
+    /** As chaves informadas seguidas das chaves de todos os seus derivados. */
+    public static List<String> comDerivados(Collection<String> chaves) {
+        List<String> todas = new ArrayList<>(chaves);
+        chaves.forEach(chave -> todas.addAll(chavesDerivados(chave)));
+        return todas;
+    }
+
+    /** Menor derivado que atende o tamanho pedido; {@code null} quando só o original serve. */
+    public static Integer tamanhoVariante(Integer solicitado) {
+        if (solicitado == null || solicitado <= 0) {
+            return null;
+        }
+        return TAMANHOS.stream().filter(tamanho -> tamanho >= solicitado).findFirst().orElse(null);
+    }
+
+    /** Chave a entregar para {@code size=}: o derivado se já foi gerado, senão o original. */
+    public static String chaveEntrega(String chave, boolean derivadosProntos, Integer solicitado) {
+        Integer tamanho = tamanhoVariante(solicitado);
+        if (chave == null || !derivadosProntos || tamanho == null) {
+            return chave;
+        }
+        return chaveDerivado(chave, tamanho);
+    }
+
+    /**
+     * Agenda a geração dos derivados; {@code aoConcluir} marca no banco que eles existem.
+     * Dentro de uma transação, só dispara depois do commit (antes disso a marcação não encontraria a linha).
+     */
+    public void gerar(String chave, byte[] dados, Runnable aoConcluir) {
+        agendar(chave, () -> dados, aoConcluir);
+    }
+
+    /** Como {@link #gerar}, para objetos enviados direto ao MinIO: o original é baixado na própria tarefa. */
+    public void gerarDoArmazenamento(String chave, Runnable aoConcluir) {
+        agendar(chave, () -> minioService.downloadFile(chave), aoConcluir);
+    }
+
+    private void agendar(String chave, Callable<byte[]> dados, Runnable aoConcluir) {
+        Runnable tarefa = () -> {
+            try {
+                gerarDerivados(chave, dados.call());
+                aoConcluir.run();
+            } catch (Exception e) {
+                log.warn("Falha ao gerar derivados de {}: {}", chave, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(tarefa);
+                }
+            });
+        } else {
+            executor.execute(tarefa);
+        }
+    }
+
+    /**
+     * LQIP da imagem: JPEG de até 16 px no lado maior como data URI (da ordem de 1 KB), que o cliente pinta no lugar
+     * da capa enquanto ela carrega. A decodificação já pula linhas/colunas (subamostragem do leitor), então uma foto
+     * grande não chega a ser montada inteira em memória. {@code null} se o resultado passar de
+     * {@link #TAMANHO_MAXIMO_PLACEHOLDER} caracteres.
+     */
+    public static String gerarPlaceholder(InputStream dados) throws IOException {
+        BufferedImage reduzida = decodificar(dados, LADO_PLACEHOLDER * 4);
+        byte[] jpeg = codificarJpeg(redimensionar(reduzida, LADO_PLACEHOLDER), QUALIDADE_PLACEHOLDER);
+        String placeholder = PREFIXO_PLACEHOLDER + Base64.getEncoder().encodeToString(jpeg);
+        return placeholder.length() <= TAMANHO_MAXIMO_PLACEHOLDER ? placeholder : null;
+    }
+
+    public List<String> gerarDerivados(String chave, byte[] dados) throws Exception {
+        BufferedImage original = decodificar(new ByteArrayInputStream(dados), Integer.MAX_VALUE);
+        List<String> chaves = new ArrayList<>();
+        for (int tamanho : TAMANHOS) {
+            String chaveDerivado = chaveDerivado(chave, tamanho);
+            minioService.uploadFile(chaveDerivado, codificarJpeg(redimensionar(original, tamanho), QUALIDADE_JPEG), "image/jpeg");
+            chaves.add(chaveDerivado);
+        }
+        return chaves;
+    }
+
+    public void removerDerivados(String chave) {
+        for (String chaveDerivado : chavesDerivados(chave)) {
+            try {
+                minioService.deleteFile(chaveDerivado);
+            } catch (Exception e) {
+                log.debug("Falha ao remover derivado de {}", chave, e);
+            }
+        }
+    }
+
+    /** Decodifica pulando pixels até ficar perto de {@code ladoAlvo} no lado maior ({@code MAX_VALUE}: inteira). */
+    private static BufferedImage decodificar(InputStream dados, int ladoAlvo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(dados)) {
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(entrada);
+            if (!leitores.hasNext()) {
+                throw new IOException("Formato de imagem sem decodificador disponível");
+            }
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                // Dimensões pelo cabeçalho antes de alocar a imagem (evita bombas de descompressão)
+                int largura = leitor.getWidth(0);
+                int altura = leitor.getHeight(0);
+                int passo = Math.max(1, Math.max(largura, altura) / ladoAlvo);
+                long pixels = ((long) largura / passo) * (altura / passo);
+                if (pixels > PIXELS_MAXIMO) {
+                    throw new IOException("Imagem grande demais: " + pixels + " pixels");
+                }
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                parametros.setSourceSubsampling(passo, passo, 0, 0);
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage redimensionar(BufferedImage original, int ladoMaximo) {
+        double escala = Math.min(1.0, (double) ladoMaximo / Math.max(original.getWidth(), original.getHeight()));
+        int largura = Math.max(1, (int) Math.round(original.getWidth() * escala));
+        int altura = Math.max(1, (int) Math.round(original.getHeight() * escala));
+
+        // Reduções grandes em etapas de metade preservam detalhe melhor que um único passo bicúbico
+        BufferedImage atual = original;
+        int larguraAtual = original.getWidth();
+        int alturaAtual = original.getHeight();
+        do {
+            larguraAtual = Math.max(largura, larguraAtual / 2);
+            alturaAtual = Math.max(altura, alturaAtual / 2);
+            atual = desenhar(atual, larguraAtual, alturaAtual);
+        } while (larguraAtual != largura || alturaAtual != altura);
+        return atual;
+    }
+
+    private static BufferedImage desenhar(BufferedImage origem, int largura, int altura) {
+        BufferedImage destino = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG não tem transparência: fundo branco para PNG/GIF com alfa
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, largura, altura);
+            g.drawImage(origem, 0, 0, largura, altura, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    private static byte[] codificarJpeg(BufferedImage imagem, float qualidade) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream destino = new MemoryCacheImageOutputStream(saida)) {
+            escritor.setOutput(destino);
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(qualidade);
+            escritor.write(null, new IIOImage(imagem, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return saida.toByteArray();
+    }
+}
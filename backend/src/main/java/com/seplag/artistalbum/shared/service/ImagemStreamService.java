@@ -0,0 +1,228 @@
+package com.seplag.artistalbum.shared.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Entrega imagens do MinIO direto para a resposta, sem materializar o arquivo no heap.
+ * Suporta um único intervalo em {@code Range} (206); múltiplos intervalos recebem o arquivo inteiro.
+ * Tamanho, ETag e Last-Modified vêm do {@code statObject}, então uma revalidação (304)
+ * custa só a consulta de metadados. Imagens pequenas passam pelo {@link CacheImagemService}:
+ * num acerto nem o {@code statObject} é feito. Com o {@link CacheDiscoService} habilitado, o conteúdo
+ * vem do arquivo local em vez do MinIO; numa falta, a resposta lê do MinIO só o trecho pedido e o arquivo é baixado
+ * fora da requisição.
+ * Com {@code imagem.entrega.modo} em {@code assinada} ou {@code publica}, a resposta é um 302 para o MinIO e os bytes
+ * não passam pela API (nem pelos caches locais).
+ * Com o armazenamento em sistema de arquivos ({@link ArmazenamentoLocalService}) a entrega é sempre local, em qualquer
+ * modo e sem os caches: o Tomcat envia o arquivo com sendfile quando o conector suporta, senão os bytes vão por
+ * {@code FileChannel.transferTo}.
+ */
+@Service
+public class ImagemStreamService {
+
+    // Atributos do Tomcat (org.apache.coyote.Constants) para entregar o arquivo com sendfile em vez do corpo da resposta
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    // ?v=<etag> fixa a versão na URL; só nesse caso a resposta pode ficar em cache sem revalidar
+    public static final String PARAMETRO_VERSAO = "v";
+    private static final CacheControl CACHE_VERSIONADO = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl CACHE_REVALIDAR = CacheControl.noCache().cachePublic();
+
+    private final MinioService minioService;
+    private final CacheImagemService cacheImagem;
+    private final CacheDiscoService cacheDisco;
+    private final ModoEntrega modoEntrega;
+
+    public ImagemStreamService(MinioService minioService, CacheImagemService cacheImagem, CacheDiscoService cacheDisco,
+                               @Value("${imagem.entrega.modo:proxy}") String modoEntrega) {
+        this.minioService = minioService;
+        this.cacheImagem = cacheImagem;
+        this.cacheDisco = cacheDisco;
+        this.modoEntrega = ModoEntrega.valueOf(modoEntrega.trim().toUpperCase());
+    }
+
+    /**
+     * Retorna {@code null} quando a requisição já foi respondida com 304 (If-None-Match / If-Modified-Since).
+     */
+    public ResponseEntity<StreamingResponseBody> entregar(String chave, String tipoConteudo, WebRequest requisicao) throws Exception {
+        Path local = minioService.arquivoLocal(chave);
+        if (local == null && modoEntrega != ModoEntrega.PROXY) {
+            return redirecionar(chave);
+        }
+        CacheImagemService.ImagemEmCache emCache = local == null ? cacheImagem.obter(chave) : null;
+        MinioService.ObjetoInfo info = emCache != null ? emCache.info() : minioService.obterInfo(chave);
+        long tamanho = info.tamanho();
+        String etag = info.etag() == null ? null : "\"" + info.etag() + "\"";
+        long ultimaModificacao = info.ultimaModificacao() == null ? -1 : info.ultimaModificacao().toInstant().toEpochMilli();
+
+        // A mesma chave pode ser sobrescrita (ex.: nova foto do artista), então sem versão na URL é no-cache
+        boolean versionada = etag != null && info.etag().equals(requisicao.getParameter(PARAMETRO_VERSAO));
+        CacheControl cacheControl = versionada ? CACHE_VERSIONADO : CACHE_REVALIDAR;
+
+        if (requisicao.checkNotModified(etag, ultimaModificacao)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder resposta;
+        long inicio = 0;
+        long quantidade = tamanho;
+
+        HttpRange intervalo = intervaloSolicitado(requisicao, etag);
+        if (intervalo != null) {
+            try {
+                inicio = intervalo.getRangeStart(tamanho);
+                quantidade = intervalo.getRangeEnd(tamanho) - inicio + 1;
+            } catch (IllegalArgumentException e) {
+                quantidade = 0;
+            }
+            if (inicio >= tamanho || quantidade <= 0) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho)
+                        .build();
+            }
+            resposta = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + (inicio + quantidade - 1) + "/" + tamanho);
+        } else {
+            resposta = ResponseEntity.ok();
+        }
+
+        CacheImagemService.LeitorObjeto origem = (k, t) -> minioService.abrirStream(k, 0, t);
+        Path emDisco = local;
+        boolean faltouNoDisco = false;
+        if (emDisco == null && emCache == null && cacheDisco.habilitado()) {
+            emDisco = cacheDisco.buscar(chave, info);
+            faltouNoDisco = emDisco == null;
+        }
+        if (emCache == null && local == null && cacheImagem.cabe(tamanho)) {
+            Path arquivo = emDisco;
+            emCache = cacheImagem.carregar(chave, info, arquivo != null ? (k, t) -> Files.newInputStream(arquivo) : origem);
+        }
+        if (faltouNoDisco) {
+            // Sem esperar o download do objeto inteiro: se ele acabou de ir para a memória, o disco copia de lá
+            CacheImagemService.ImagemEmCache carregada = emCache;
+            cacheDisco.preencherEmSegundoPlano(chave, info, carregada != null ? (k, t) -> carregada.abrir() : origem);
+        }
+
+        if (etag != null) {
+            resposta.eTag(etag);
+        }
+        if (ultimaModificacao >= 0) {
+            resposta.lastModified(ultimaModificacao);
+        }
+        resposta.contentType(MediaType.parseMediaType(tipoConteudo != null ? tipoConteudo : tipoPadrao(info)))
+                .contentLength(quantidade)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (local != null && quantidade > 0 && enviarComSendfile(requisicao, local, inicio, quantidade)) {
+            // Sem corpo: o Tomcat descarta o que a aplicação escreveria e copia o arquivo direto para o socket
+            return resposta.body(null);
+        }
+        long inicioStream = inicio;
+        long tamanhoStream = quantidade;
+        CacheImagemService.ImagemEmCache emMemoria = emCache;
+        Path arquivoDisco = emDisco;
+        return resposta.body(saida -> {
+            if (tamanhoStream == 0) {
+                return;
+            }
+            if (emMemoria != null) {
+                emMemoria.escrever(saida, inicioStream, tamanhoStream);
+                return;
+            }
+            if (arquivoDisco != null) {
+                try {
+                    CacheDiscoService.escrever(arquivoDisco, saida, inicioStream, tamanhoStream);
+                    return;
+                } catch (NoSuchFileException e) {
+                    // Removido pela LRU entre a consulta e a leitura; nada foi escrito ainda
+                }
+            }
+            try (InputStream entrada = minioService.abrirStream(chave, inicioStream, tamanhoStream)) {
+                entrada.transferTo(saida);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Falha ao ler objeto do MinIO: " + chave, e);
+            }
+        });
+    }
+
+    private static boolean enviarComSendfile(WebRequest requisicao, Path arquivo, long inicio, long quantidade) {
+        if (!Boolean.TRUE.equals(requisicao.getAttribute(SENDFILE_SUPORTADO, RequestAttributes.SCOPE_REQUEST))) {
+            return false;
+        }
+        requisicao.setAttribute(SENDFILE_ARQUIVO, arquivo.toAbsolutePath().toString(), RequestAttributes.SCOPE_REQUEST);
+        requisicao.setAttribute(SENDFILE_INICIO, inicio, RequestAttributes.SCOPE_REQUEST);
+        requisicao.setAttribute(SENDFILE_FIM, inicio + quantidade, RequestAttributes.SCOPE_REQUEST);
+        return true;
+    }
+
+    private HttpRange intervaloSolicitado(WebRequest requisicao, String etag) {
+        String range = requisicao.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return null;
+        }
+        // If-Range com outra versão: ignora o Range e devolve o arquivo atual inteiro
+        String seIntervalo = requisicao.getHeader(HttpHeaders.IF_RANGE);
+        if (seIntervalo != null && !seIntervalo.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> intervalos = HttpRange.parseRanges(range);
+            return intervalos.size() == 1 ? intervalos.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String tipoPadrao(MinioService.ObjetoInfo info) {
+        String tipo = info.tipoConteudo();
+        return tipo != null && tipo.startsWith("image/") ? tipo : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    /*
+     * Sem statObject: o destino é a URL pública (estável por chave) ou a assinada do cache do MinioService (a mesma
+     * durante a janela de reuso), então o navegador continua reaproveitando a imagem que já baixou. O 302 em si
+     * é revalidado, porque a chave do álbum/artista pode mudar.
+     */
+    private ResponseEntity<StreamingResponseBody> redirecionar(String chave) throws Exception {
+        String destino = modoEntrega == ModoEntrega.PUBLICA
+                ? minioService.getPublicUrl(chave)
+                : minioService.generatePresignedUrl30Min(chave);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(destino))
+                .cacheControl(CACHE_REVALIDAR)
+                .build();
+    }
+
+    public enum ModoEntrega {
+        /** Bytes passam pela API (padrão). */
+        PROXY,
+        /** 302 para URL assinada (endpoint público do MinIO), válida por pelo menos 15 min. */
+        ASSINADA,
+        /** 302 para a URL pública do objeto; exige política de leitura anônima no bucket. */
+        PUBLICA
+    }
+}
@@ -0,0 +1,302 @@
+package com.seplag.artistalbum.shared.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Tira do original, em stream e sem reprocessar a imagem, os metadados que identificam autor e local (EXIF com GPS,
+ * XMP, IPTC, comentários). JPEG perde os segmentos APP1, APP13 e COM; só a orientação do EXIF volta, num APP1
+ * mínimo, para a foto não aparecer girada. PNG perde os chunks eXIf, tEXt, zTXt, iTXt e tIME. O resto (perfil ICC,
+ * dados da imagem) é copiado byte a byte. GIF e WebP passam inalterados.
+ */
+public final class MetadadosImagem {
+
+    private MetadadosImagem() {
+    }
+
+    public static InputStream semMetadados(InputStream entrada, String tipoConteudo) {
+        if ("image/jpeg".equals(tipoConteudo)) {
+            return new FiltroJpeg(entrada);
+        }
+        if ("image/png".equals(tipoConteudo)) {
+            return new FiltroPng(entrada);
+        }
+        return entrada;
+    }
+
+    public static byte[] semMetadados(byte[] dados, String tipoConteudo) throws IOException {
+        try (InputStream filtrado = semMetadados(new ByteArrayInputStream(dados), tipoConteudo)) {
+            return filtrado.readAllBytes();
+        }
+    }
+
+    /**
+     * Repassa a entrada trecho a trecho: {@link #proximo()} decide o que vem a seguir (bytes prontos, uma quantidade
+     * a copiar da entrada, o resto inteiro). Uma imagem truncada ou fora do formato esperado não é erro: o que sobra
+     * é copiado como está, e a validação da imagem fica com quem já a faz.
+     */
+    private abstract static class Filtro extends InputStream {
+
+        protected final InputStream entrada;
+        private byte[] pendente = new byte[0];
+        private int posicao;
+        private long restante;
+        private boolean copiarResto;
+        private boolean fim;
+
+        Filtro(InputStream entrada) {
+            this.entrada = entrada;
+        }
+
+        protected abstract void proximo() throws IOException;
+
+        protected void emitir(byte... bytes) {
+            pendente = bytes;
+            posicao = 0;
+        }
+
+        protected void copiar(long quantidade) {
+            restante = quantidade;
+        }
+
+        protected void copiarResto() {
+            copiarResto = true;
+        }
+
+        protected void terminar() {
+            fim = true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : um[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) throws IOException {
+            if (tamanho == 0) {
+                return 0;
+            }
+            while (true) {
+                if (posicao < pendente.length) {
+                    int quantidade = Math.min(tamanho, pendente.length - posicao);
+                    System.arraycopy(pendente, posicao, destino, inicio, quantidade);
+                    posicao += quantidade;
+                    return quantidade;
+                }
+                if (restante > 0) {
+                    int lidos = entrada.read(destino, inicio, (int) Math.min(tamanho, restante));
+                    if (lidos < 0) {
+                        restante = 0;
+                        fim = true;
+                        return -1;
+                    }
+                    restante -= lidos;
+                    return lidos;
+                }
+                if (copiarResto) {
+                    return entrada.read(destino, inicio, tamanho);
+                }
+                if (fim) {
+                    return -1;
+                }
+                try {
+                    proximo();
+                } catch (EOFException e) {
+                    fim = true;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+    }
+
+    private static final class FiltroJpeg extends Filtro {
+
+        private static final int SOI = 0xD8;
+        private static final int EOI = 0xD9;
+        private static final int SOS = 0xDA;
+        private static final int APP1 = 0xE1;
+        private static final int APP13 = 0xED;
+        private static final int COM = 0xFE;
+        private static final byte[] EXIF = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+        private static final int TAG_ORIENTACAO = 0x0112;
+
+        private boolean iniciado;
+
+        FiltroJpeg(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        protected void proximo() throws IOException {
+            if (!iniciado) {
+                iniciado = true;
+                byte[] inicio = entrada.readNBytes(2);
+                emitir(inicio);
+                if (inicio.length < 2 || (inicio[0] & 0xFF) != 0xFF || (inicio[1] & 0xFF) != SOI) {
+                    copiarResto();
+                }
+                return;
+            }
+            int prefixo = entrada.read();
+            if (prefixo < 0) {
+                terminar();
+                return;
+            }
+            if (prefixo != 0xFF) {
+                emitir((byte) prefixo);
+                copiarResto();
+                return;
+            }
+            int marcador = entrada.read();
+            while (marcador == 0xFF) {
+                // Bytes de preenchimento entre segmentos
+                marcador = entrada.read();
+            }
+            if (marcador < 0) {
+                emitir((byte) 0xFF);
+                terminar();
+                return;
+            }
+            if (marcador == SOS || marcador == EOI) {
+                // Depois do SOS vêm os dados comprimidos até o fim do arquivo
+                emitir((byte) 0xFF, (byte) marcador);
+                copiarResto();
+                return;
+            }
+            if ((marcador >= 0xD0 && marcador <= 0xD7) || marcador == 0x01) {
+                emitir((byte) 0xFF, (byte) marcador);
+                return;
+            }
+            byte[] tamanho = entrada.readNBytes(2);
+            if (tamanho.length < 2) {
+                emitir(concatenar(new byte[]{(byte) 0xFF, (byte) marcador}, tamanho));
+                terminar();
+                return;
+            }
+            int comprimento = ((tamanho[0] & 0xFF) << 8 | (tamanho[1] & 0xFF)) - 2;
+            if (comprimento < 0) {
+                emitir((byte) 0xFF, (byte) marcador, tamanho[0], tamanho[1]);
+                copiarResto();
+                return;
+            }
+            if (marcador == APP1) {
+                byte[] conteudo = entrada.readNBytes(comprimento);
+                emitir(segmentoOrientacao(orientacao(conteudo)));
+                return;
+            }
+            if (marcador == APP13 || marcador == COM) {
+                entrada.skipNBytes(comprimento);
+                return;
+            }
+            emitir((byte) 0xFF, (byte) marcador, tamanho[0], tamanho[1]);
+            copiar(comprimento);
+        }
+
+        /** Valor da tag Orientation do IFD0 de um APP1 EXIF; 0 quando não é EXIF ou a tag não existe. */
+        static int orientacao(byte[] app1) {
+            if (app1.length < EXIF.length + 8 || !Arrays.equals(app1, 0, EXIF.length, EXIF, 0, EXIF.length)) {
+                return 0;
+            }
+            ByteBuffer tiff = ByteBuffer.wrap(app1, EXIF.length, app1.length - EXIF.length).slice();
+            if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+                tiff.order(ByteOrder.LITTLE_ENDIAN);
+            } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+                return 0;
+            }
+            long ifd0 = Integer.toUnsignedLong(tiff.getInt(4));
+            if (ifd0 + 2 > tiff.limit()) {
+                return 0;
+            }
+            int entradas = Short.toUnsignedInt(tiff.getShort((int) ifd0));
+            for (int i = 0; i < entradas; i++) {
+                int posicao = (int) ifd0 + 2 + i * 12;
+                if (posicao + 12 > tiff.limit()) {
+                    return 0;
+                }
+                if (Short.toUnsignedInt(tiff.getShort(posicao)) == TAG_ORIENTACAO) {
+                    int valor = Short.toUnsignedInt(tiff.getShort(posicao + 8));
+                    return valor >= 1 && valor <= 8 ? valor : 0;
+                }
+            }
+            return 0;
+        }
+
+        /** APP1 EXIF só com a orientação (big-endian, um IFD de uma entrada); nada quando é a padrão (1). */
+        static byte[] segmentoOrientacao(int orientacao) {
+            if (orientacao <= 1) {
+                return new byte[0];
+            }
+            ByteBuffer segmento = ByteBuffer.allocate(2 + 2 + EXIF.length + 8 + 2 + 12 + 4);
+            segmento.put((byte) 0xFF).put((byte) APP1).putShort((short) (segmento.capacity() - 2))
+                    .put(EXIF)
+                    .put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8)
+                    .putShort((short) 1)
+                    .putShort((short) TAG_ORIENTACAO).putShort((short) 3).putInt(1)
+                    .putShort((short) orientacao).putShort((short) 0)
+                    .putInt(0);
+            return segmento.array();
+        }
+    }
+
+    private static final class FiltroPng extends Filtro {
+
+        private static final Set<String> REMOVIDOS = Set.of("eXIf", "tEXt", "zTXt", "iTXt", "tIME");
+
+        private boolean iniciado;
+
+        FiltroPng(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        protected void proximo() throws IOException {
+            if (!iniciado) {
+                iniciado = true;
+                byte[] assinatura = entrada.readNBytes(8);
+                emitir(assinatura);
+                if (assinatura.length < 8) {
+                    terminar();
+                }
+                return;
+            }
+            byte[] cabecalho = entrada.readNBytes(8);
+            if (cabecalho.length < 8) {
+                emitir(cabecalho);
+                terminar();
+                return;
+            }
+            long comprimento = Integer.toUnsignedLong(ByteBuffer.wrap(cabecalho).getInt());
+            String tipo = new String(cabecalho, 4, 4, StandardCharsets.ISO_8859_1);
+            if (REMOVIDOS.contains(tipo)) {
+                // Dados e CRC
+                entrada.skipNBytes(comprimento + 4);
+                return;
+            }
+            emitir(cabecalho);
+            if ("IEND".equals(tipo)) {
+                copiarResto();
+            } else {
+                copiar(comprimento + 4);
+            }
+        }
+    }
+
+    private static byte[] concatenar(byte[] primeiro, byte[] segundo) {
+        byte[] resultado = Arrays.copyOf(primeiro, primeiro.length + segundo.length);
+        System.arraycopy(segundo, 0, resultado, primeiro.length, segundo.length);
+        return resultado;
+    }
+}
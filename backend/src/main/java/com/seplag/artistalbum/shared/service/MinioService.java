@@ -1,124 +1,207 @@
 package com.seplag.artistalbum.shared.service;
 
-import io.minio.*;
-import io.minio.http.Method;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
-import java.util.concurrent.TimeUnit;
-
+import java.io.InputStream;
+import java.time.Duration;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * API bloqueante usada pelos serviços, sobre o {@link ArmazenamentoObjetos} configurado (MinIO ou sistema de arquivos);
+ * acrescenta o cache de URLs assinadas e a invalidação do cache de imagens. Quem quiser sobrepor chamadas usa as
+ * variantes {@code *Async}.
+ */
 @Service
 public class MinioService {
 
-    private final MinioClient minioClient;
-    private final MinioClient minioClientPublic;
+    private static final Duration VALIDADE_URL_ASSINADA = Duration.ofMinutes(30);
 
+    private final ArmazenamentoObjetos armazenamento;
+    // Chave do objeto -> URL assinada de 30 min; evita refazer a assinatura a cada linha/requisição
+    private final Cache<String, String> urlsAssinadas;
+    private final CacheImagemService cacheImagem;
 
-    @Value("${minio.bucket-name}")
-    private String bucketName;
+    public MinioService(@Value("${minio.url-assinada.cache.tamanho-maximo:10000}") long tamanhoMaximoCache,
+                        @Value("${minio.url-assinada.cache.reuso:15m}") Duration reusoUrlAssinada,
+                        MeterRegistry meterRegistry,
+                        CacheImagemService cacheImagem,
+                        ArmazenamentoObjetos armazenamento) {
+        this.cacheImagem = cacheImagem;
+        this.armazenamento = armazenamento;
 
-    public MinioService(@Value("${minio.endpoint}") String endpoint,
-                        @Value("${minio.public-endpoint}") String publicEndpoint,
-                        @Value("${minio.access-key}") String accessKey,
-                        @Value("${minio.secret-key}") String secretKey) {
-        this.minioClient = MinioClient.builder()
-                .endpoint(endpoint)
-                .credentials(accessKey, secretKey)
-                .region("us-east-1")
-                .build();
-        this.minioClientPublic = MinioClient.builder()
-                .endpoint(publicEndpoint)
-                .credentials(accessKey, secretKey)
-                .region("us-east-1")
+        if (reusoUrlAssinada.compareTo(VALIDADE_URL_ASSINADA) >= 0) {
+            throw new IllegalArgumentException("minio.url-assinada.cache.reuso deve ser menor que " + VALIDADE_URL_ASSINADA);
+        }
+        this.urlsAssinadas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoCache)
+                .expireAfterWrite(reusoUrlAssinada)
+                .recordStats()
                 .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, urlsAssinadas, "minio.url-assinada");
     }
 
     public void uploadFile(String objectKey, byte[] data, String contentType) throws Exception {
-        // Garantir que o bucket existe
-        ensureBucketExists();
+        uploadStream(objectKey, new ByteArrayInputStream(data), data.length, contentType);
+    }
 
-        minioClient.putObject(
-                PutObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(objectKey)
-                        .stream(new ByteArrayInputStream(data), data.length, -1)
-                        .contentType(contentType)
-                        .build()
-        );
+    /**
+     * Envia {@code tamanho} bytes lidos de {@code dados}; o cliente do MinIO bufferiza no máximo uma parte
+     * (5 MiB) por vez e passa a multipart upload quando o objeto é maior que isso.
+     */
+    public void uploadStream(String objectKey, InputStream dados, long tamanho, String contentType) throws Exception {
+        aguardar(armazenamento.enviar(objectKey, dados, tamanho, contentType));
+        // A mesma chave pode ter sido sobrescrita (ex.: foto do artista)
+        cacheImagem.invalidar(objectKey);
     }
 
     public void deleteFile(String objectKey) throws Exception {
-        minioClient.removeObject(
-                RemoveObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(objectKey)
-                        .build()
-        );
+        aguardar(deleteFileAsync(objectKey));
+    }
+
+    public CompletableFuture<Void> deleteFileAsync(String objectKey) {
+        urlsAssinadas.invalidate(objectKey);
+        return armazenamento.remover(objectKey).thenRun(() -> cacheImagem.invalidar(objectKey));
+    }
+
+    /** Remove as chaves em lote; devolve as que não foram removidas. */
+    public List<String> deleteFiles(Collection<String> objectKeys) throws Exception {
+        urlsAssinadas.invalidateAll(objectKeys);
+        List<String> falhas = armazenamento.removerVarios(objectKeys);
+        objectKeys.forEach(cacheImagem::invalidar);
+        return falhas;
+    }
+
+    /**
+     * Objetos sob {@code prefixo}, buscados uma página por vez conforme o stream é consumido.
+     * Uma falha de listagem no meio do caminho sai como {@link IllegalStateException}.
+     */
+    public Stream<ObjetoListado> listFiles(String prefixo, int tamanhoPagina) {
+        return armazenamento.listar(prefixo, tamanhoPagina);
+    }
+
+    /**
+     * URL para o cliente enviar o objeto direto ao armazenamento (PUT), sem o multipart da API.
+     */
+    public String generatePresignedPutUrl(String objectKey, Duration validade) throws Exception {
+        return aguardar(armazenamento.assinarEnvio(objectKey, validade));
+    }
+
+    public String getPublicUrl(String objectKey) {
+        return armazenamento.urlPublica(objectKey);
     }
 
     public String generatePresignedUrl(String objectKey, int expirationSeconds) throws Exception {
-        return minioClientPublic.getPresignedObjectUrl(
-                GetPresignedObjectUrlArgs.builder()
-                        .method(Method.GET)
-                        .bucket(bucketName)
-                        .object(objectKey)
-                        .expiry(expirationSeconds, TimeUnit.SECONDS)
-                        .build()
-        );
+        return aguardar(armazenamento.assinarLeitura(objectKey, Duration.ofSeconds(expirationSeconds)));
     }
 
 
     public byte[] downloadFile(String objectKey) throws Exception {
-        try (var stream = minioClient.getObject(
-                GetObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(objectKey)
-                        .build())) {
+        try (var stream = aguardar(armazenamento.abrir(objectKey, 0, null))) {
             return stream.readAllBytes();
         }
     }
 
+    public ObjetoInfo obterInfo(String objectKey) throws Exception {
+        return aguardar(obterInfoAsync(objectKey));
+    }
+
+    public CompletableFuture<ObjetoInfo> obterInfoAsync(String objectKey) {
+        return armazenamento.obterInfo(objectKey);
+    }
+
+    /** Arquivo no disco local com o objeto, quando o armazenamento é o sistema de arquivos; senão {@code null}. */
+    public Path arquivoLocal(String objectKey) {
+        return armazenamento.arquivoLocal(objectKey);
+    }
+
+    /**
+     * Abre o objeto (ou só o trecho [inicio, inicio + tamanho)) como stream, sem carregar em memória.
+     * Quem chama é responsável por fechar.
+     */
+    public InputStream abrirStream(String objectKey, long inicio, long tamanho) throws Exception {
+        return aguardar(armazenamento.abrir(objectKey, inicio, tamanho));
+    }
+
     public boolean fileExists(String objectKey) throws Exception {
         try {
-            minioClient.statObject(
-                    StatObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(objectKey)
-                            .build()
-            );
+            aguardar(armazenamento.obterInfo(objectKey));
             return true;
         } catch (Exception e) {
             return false;
         }
     }
 
-    private void ensureBucketExists() throws Exception {
-        boolean found = minioClient.bucketExists(
-                BucketExistsArgs.builder()
-                        .bucket(bucketName)
-                        .build()
-        );
-
-        if (!found) {
-            minioClient.makeBucket(
-                    MakeBucketArgs.builder()
-                            .bucket(bucketName)
-                    .build()
-            );
+    // Devolve o resultado ou relança a exceção original do cliente (não o invólucro do futuro)
+    private static <T> T aguardar(CompletableFuture<T> futuro) throws Exception {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception causa ? causa : e;
         }
     }
 
+    /**
+     * URL assinada de 30 minutos, reaproveitada enquanto estiver dentro da janela de reuso.
+     * A assinatura só é refeita quando a URL em cache se aproxima da expiração.
+     */
     public String generatePresignedUrl30Min(String objectKey) throws Exception {
-        return minioClientPublic.getPresignedObjectUrl(
-                GetPresignedObjectUrlArgs.builder()
-                        .method(Method.GET)
-                        .bucket(bucketName)
-                        .object(objectKey)
-//                        .expiry(30, TimeUnit.SECONDS)
-                        .expiry(30, TimeUnit.MINUTES)
-                        .build()
-        );
+        try {
+            return urlsAssinadas.get(objectKey, this::assinar30Min);
+        } catch (FalhaAssinatura e) {
+            throw e.causa;
+        }
     }
 
+    /**
+     * Assina várias chaves de uma vez; só as ausentes do cache passam pelo cliente MinIO.
+     * Chaves que falharem na assinatura ficam fora do mapa.
+     */
+    public Map<String, String> generatePresignedUrls30Min(Collection<String> objectKeys) {
+        return urlsAssinadas.getAll(objectKeys, ausentes -> {
+            Map<String, String> assinadas = new HashMap<>();
+            for (String chave : ausentes) {
+                try {
+                    assinadas.put(chave, assinar30Min(chave));
+                } catch (FalhaAssinatura e) {
+                    // Sem URL para esta chave; as demais seguem assinadas
+                }
+            }
+            return assinadas;
+        });
+    }
+
+    private String assinar30Min(String objectKey) {
+        try {
+            return aguardar(armazenamento.assinarLeitura(objectKey, VALIDADE_URL_ASSINADA));
+        } catch (Exception e) {
+            throw new FalhaAssinatura(e);
+        }
+    }
+
+    public record ObjetoInfo(long tamanho, String etag, String tipoConteudo, ZonedDateTime ultimaModificacao) {}
+
+    public record ObjetoListado(String chave, long tamanho, ZonedDateTime ultimaModificacao) {}
+
+    private static class FalhaAssinatura extends RuntimeException {
+        private final Exception causa;
+
+        FalhaAssinatura(Exception causa) {
+            super(causa);
+            this.causa = causa;
+        }
+    }
 }
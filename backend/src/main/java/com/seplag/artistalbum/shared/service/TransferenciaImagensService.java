@@ -0,0 +1,172 @@
+package com.seplag.artistalbum.shared.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PUTs e DELETEs de vários objetos de uma requisição em paralelo. Os PUTs leem o stream de origem e usam o pool
+ * limitado por {@code imagem.transferencia.concorrencia} (compartilhado, então o limite vale para a aplicação toda);
+ * os DELETEs só sobrepõem chamadas do cliente assíncrono, sem ocupar threads.
+ * Uma requisição leva aproximadamente o tempo do envio mais lento, não a soma dos envios.
+ */
+@Service
+public class TransferenciaImagensService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferenciaImagensService.class);
+
+    private final MinioService minioService;
+    private final ExecutorService executor;
+
+    public TransferenciaImagensService(MinioService minioService,
+                                       @Value("${imagem.transferencia.concorrencia:4}") int concorrencia) {
+        this.minioService = minioService;
+        this.executor = Executors.newFixedThreadPool(concorrencia, r -> {
+            Thread thread = new Thread(r, "imagem-transferencia");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Chave nunca usada sob {@code prefixo}. O objeto enviado para ela fica invisível (nenhuma linha aponta para ele)
+     * até o commit dos metadados, então o envio pode acontecer fora da transação sem expor nada pela metade.
+     */
+    public static String novaChave(String prefixo, String nomeArquivo) {
+        String extensao = "";
+        if (nomeArquivo != null && nomeArquivo.lastIndexOf('.') > nomeArquivo.lastIndexOf('/')) {
+            extensao = nomeArquivo.substring(nomeArquivo.lastIndexOf('.'));
+        }
+        return prefixo + UUID.randomUUID() + extensao;
+    }
+
+    /**
+     * Envia todos os objetos e só retorna quando todos terminaram. Se algum falhar, os que chegaram ao MinIO
+     * são removidos (compensação) e a primeira falha é relançada: ou sobem todos, ou nenhum fica.
+     */
+    public void enviarTodos(List<Envio> envios) throws Exception {
+        List<Future<String>> tarefas = new ArrayList<>();
+        for (Envio envio : envios) {
+            tarefas.add(executor.submit(() -> {
+                try (InputStream dados = envio.fonte().call()) {
+                    minioService.uploadStream(envio.chave(), dados, envio.tamanho(), envio.tipoConteudo());
+                }
+                return envio.chave();
+            }));
+        }
+
+        // Espera todos, inclusive depois de uma falha: compensar antes disso deixaria um PUT em voo para trás
+        List<String> enviados = new ArrayList<>();
+        Exception falha = null;
+        for (Future<String> tarefa : tarefas) {
+            try {
+                enviados.add(aguardar(tarefa));
+            } catch (ExecutionException e) {
+                if (falha == null) {
+                    falha = e.getCause() instanceof Exception causa ? causa : e;
+                }
+            }
+        }
+        if (falha != null) {
+            log.warn("Falha ao enviar {} de {} objetos; removendo os já enviados", envios.size() - enviados.size(), envios.size());
+            removerTodos(enviados);
+            throw falha;
+        }
+    }
+
+    /**
+     * Remove os objetos em paralelo. Falhas são só registradas: o objeto vira órfão, não um erro da requisição.
+     */
+    public void removerTodos(Collection<String> chaves) {
+        CompletableFuture.allOf(chaves.stream().map(this::remover).toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Remove os objetos depois do commit da transação atual, em segundo plano; num rollback eles continuam referenciados
+     * e ficam. {@code afterCommit} ainda roda com a conexão JDBC presa, por isso aqui só se disparam as remoções.
+     */
+    public void removerAposCommit(Collection<String> chaves) {
+        List<String> pendentes = List.copyOf(chaves);
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        aposCommit(() -> pendentes.forEach(this::remover));
+    }
+
+    /**
+     * Roda {@code tarefa} neste pool depois do commit da transação atual (ou já, sem transação); num rollback ela é
+     * descartada. Para remoções que precisam consultar o banco antes, fora da conexão presa em {@code afterCommit}.
+     * Falhas são só registradas.
+     */
+    public void executarAposCommit(Runnable tarefa) {
+        aposCommit(() -> executor.execute(() -> {
+            try {
+                tarefa.run();
+            } catch (RuntimeException e) {
+                log.warn("Falha na remoção após o commit: {}", e.getMessage());
+            }
+        }));
+    }
+
+    private static void aposCommit(Runnable agendar) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    agendar.run();
+                }
+            });
+        } else {
+            agendar.run();
+        }
+    }
+
+    // Nunca completa com erro: a falha só é registrada
+    private CompletableFuture<Void> remover(String chave) {
+        return minioService.deleteFileAsync(chave).exceptionally(erro -> {
+            log.warn("Falha ao remover {}: {}", chave, erro.getMessage());
+            return null;
+        });
+    }
+
+    /** Espera a tarefa mesmo se interrompido (repondo a interrupção depois), para nunca abandonar I/O em voo. */
+    private static <T> T aguardar(Future<T> tarefa) throws ExecutionException {
+        boolean interrompido = false;
+        try {
+            while (true) {
+                try {
+                    return tarefa.get();
+                } catch (InterruptedException e) {
+                    interrompido = true;
+                }
+            }
+        } finally {
+            if (interrompido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public record Envio(String chave, long tamanho, String tipoConteudo, Callable<InputStream> fonte) {}
+}
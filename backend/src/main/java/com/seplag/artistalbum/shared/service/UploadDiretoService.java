@@ -0,0 +1,86 @@
+package com.seplag.artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.dto.UploadIntencaoDTO;
+import com.seplag.artistalbum.shared.dto.UploadIntencaoRequestDTO;
+import com.seplag.artistalbum.shared.exception.InvalidUploadException;
+import com.seplag.artistalbum.shared.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upload em duas etapas direto no MinIO: a intenção devolve uma URL PUT assinada para uma chave nova
+ * sob o prefixo do dono (álbum ou artista); a confirmação só aceita o objeto depois de conferir
+ * tamanho e assinatura de bytes via {@code statObject} + leitura do cabeçalho.
+ */
+@Service
+public class UploadDiretoService {
+
+    private static final Duration VALIDADE_UPLOAD = Duration.ofMinutes(15);
+    private static final int BYTES_CABECALHO = 12;
+    private static final Map<String, String> EXTENSOES = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp"
+    );
+
+    private final MinioService minioService;
+    private final long tamanhoMaximo;
+
+    public UploadDiretoService(MinioService minioService,
+                               @Value("${imagem.upload.tamanho-maximo:10MB}") DataSize tamanhoMaximo) {
+        this.minioService = minioService;
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+    }
+
+    public UploadIntencaoDTO criarIntencao(String prefixo, UploadIntencaoRequestDTO pedido) throws Exception {
+        String extensao = EXTENSOES.get(pedido.getTipoConteudo());
+        if (extensao == null) {
+            throw new InvalidUploadException("Tipo de imagem não suportado: " + pedido.getTipoConteudo());
+        }
+        if (pedido.getTamanho() > tamanhoMaximo) {
+            throw new InvalidUploadException("Arquivo maior que o permitido (" + tamanhoMaximo + " bytes)");
+        }
+        // Chave sempre nova: a URL assinada não permite sobrescrever uma capa já publicada
+        String chave = prefixo + UUID.randomUUID() + extensao;
+        String url = minioService.generatePresignedPutUrl(chave, VALIDADE_UPLOAD);
+        return new UploadIntencaoDTO(chave, url, "PUT", LocalDateTime.now().plus(VALIDADE_UPLOAD));
+    }
+
+    /**
+     * Confere o objeto enviado e devolve o tipo detectado pelos bytes. Conteúdo inválido é removido do bucket.
+     */
+    public String confirmar(String prefixo, String chave) throws Exception {
+        if (chave == null || !chave.startsWith(prefixo) || chave.indexOf('/', prefixo.length()) >= 0 || chave.contains("..")) {
+            throw new InvalidUploadException("Chave não pertence a este destino de upload: " + chave);
+        }
+        MinioService.ObjetoInfo info;
+        try {
+            info = minioService.obterInfo(chave);
+        } catch (Exception e) {
+            throw new ResourceNotFoundException("Objeto não encontrado no armazenamento: " + chave);
+        }
+        if (info.tamanho() > tamanhoMaximo) {
+            minioService.deleteFile(chave);
+            throw new InvalidUploadException("Arquivo maior que o permitido (" + tamanhoMaximo + " bytes)");
+        }
+        String tipoConteudo = null;
+        if (info.tamanho() >= BYTES_CABECALHO) {
+            try (InputStream entrada = minioService.abrirStream(chave, 0, BYTES_CABECALHO)) {
+                tipoConteudo = DerivadosImagemService.detectarTipo(entrada);
+            }
+        }
+        if (tipoConteudo == null) {
+            minioService.deleteFile(chave);
+            throw new InvalidUploadException("Conteúdo enviado não é uma imagem suportada");
+        }
+        return tipoConteudo;
+    }
+}
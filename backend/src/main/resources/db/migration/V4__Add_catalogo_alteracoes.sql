@@ -0,0 +1,77 @@
+/* =========================================================
+   Consulta incremental do catálogo (/v1/catalogo/changes)
+   ========================================================= */
+
+CREATE INDEX idxArtistaDataAtualizacao ON artista (dataAtualizacao);
+CREATE INDEX idxAlbumDataAtualizacao   ON album (dataAtualizacao);
+CREATE INDEX idxBandaDataAtualizacao   ON banda (dataAtualizacao);
+
+
+/* =========================================================
+   TABELA: catalogo_exclusao (tombstones)
+   ========================================================= */
+CREATE TABLE catalogo_exclusao (
+    idExclusao BIGSERIAL PRIMARY KEY,
+    entidade VARCHAR(20) NOT NULL,
+    idEntidade BIGINT NOT NULL,
+    dataExclusao TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idxCatalogoExclusaoData ON catalogo_exclusao (dataExclusao);
+
+/* Registra a exclusão; também cobre as remoções em cascata (ex.: álbuns do artista) */
+CREATE OR REPLACE FUNCTION registrar_exclusao_catalogo()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO catalogo_exclusao (entidade, idEntidade)
+    VALUES (TG_ARGV[0], (to_jsonb(OLD) ->> TG_ARGV[1])::BIGINT);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tgArtistaExclusao
+AFTER DELETE ON artista
+FOR EACH ROW EXECUTE FUNCTION registrar_exclusao_catalogo('artista', 'idartista');
+
+CREATE TRIGGER tgAlbumExclusao
+AFTER DELETE ON album
+FOR EACH ROW EXECUTE FUNCTION registrar_exclusao_catalogo('album', 'idalbum');
+
+CREATE TRIGGER tgBandaExclusao
+AFTER DELETE ON banda
+FOR EACH ROW EXECUTE FUNCTION registrar_exclusao_catalogo('banda', 'idbanda');
+
+
+/* =========================================================
+   Mudanças em tabelas filhas tocam a linha pai
+   ========================================================= */
+
+/* Vínculo banda x artista altera a lista de artistas da banda */
+CREATE OR REPLACE FUNCTION tocar_banda_por_vinculo()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE banda
+       SET dataAtualizacao = CURRENT_TIMESTAMP
+     WHERE idBanda = COALESCE(NEW.idBanda, OLD.idBanda);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tgBandaArtistaTocaBanda
+AFTER INSERT OR DELETE ON bandaArtista
+FOR EACH ROW EXECUTE FUNCTION tocar_banda_por_vinculo();
+
+/* Nova capa ou troca da principal altera a capa exibida do álbum */
+CREATE OR REPLACE FUNCTION tocar_album_por_capa()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE album
+       SET dataAtualizacao = CURRENT_TIMESTAMP
+     WHERE idAlbum = NEW.idAlbum;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tgAlbumCapaTocaAlbum
+AFTER INSERT OR UPDATE ON album_capa
+FOR EACH ROW EXECUTE FUNCTION tocar_album_por_capa();
@@ -0,0 +1,7 @@
+/* =========================================================
+   Derivados de imagem (miniaturas 64/256/1024 px)
+   Marcados só depois que todos foram gravados no MinIO
+   ========================================================= */
+
+ALTER TABLE album_capa ADD COLUMN derivados BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE artista ADD COLUMN fotoDerivados BOOLEAN NOT NULL DEFAULT FALSE;
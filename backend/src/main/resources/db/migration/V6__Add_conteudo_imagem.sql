@@ -0,0 +1,49 @@
+/* =========================================================
+   TABELA: conteudo_imagem
+   Imagens endereçadas pelo SHA-256 do conteúdo: bytes iguais
+   ficam num único objeto do MinIO
+   ========================================================= */
+CREATE TABLE conteudo_imagem (
+    hash CHAR(64) PRIMARY KEY,
+    chaveObjeto VARCHAR(500) NOT NULL,
+    tamanho BIGINT NOT NULL,
+    tipoConteudo VARCHAR(100),
+    referencias INTEGER NOT NULL DEFAULT 0,
+    dataCriacao TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE UNIQUE INDEX uxConteudoImagemChave ON conteudo_imagem (chaveObjeto);
+
+
+/* =========================================================
+   Contagem de referências: linhas de album_capa e artista
+   apontando para a chave do conteúdo. Mantida por trigger,
+   então também cobre as remoções em cascata
+   ========================================================= */
+CREATE OR REPLACE FUNCTION contar_referencias_conteudo()
+RETURNS TRIGGER AS $$
+DECLARE
+    chaveAnterior VARCHAR;
+    chaveNova VARCHAR;
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        chaveAnterior := to_jsonb(OLD) ->> TG_ARGV[0];
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        chaveNova := to_jsonb(NEW) ->> TG_ARGV[0];
+    END IF;
+    IF chaveAnterior IS DISTINCT FROM chaveNova THEN
+        UPDATE conteudo_imagem SET referencias = referencias - 1 WHERE chaveObjeto = chaveAnterior;
+        UPDATE conteudo_imagem SET referencias = referencias + 1 WHERE chaveObjeto = chaveNova;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tgAlbumCapaReferenciasConteudo
+AFTER INSERT OR UPDATE OF chaveObjeto OR DELETE ON album_capa
+FOR EACH ROW EXECUTE FUNCTION contar_referencias_conteudo('chaveobjeto');
+
+CREATE TRIGGER tgArtistaReferenciasConteudo
+AFTER INSERT OR UPDATE OF fotoArtista OR DELETE ON artista
+FOR EACH ROW EXECUTE FUNCTION contar_referencias_conteudo('fotoartista');
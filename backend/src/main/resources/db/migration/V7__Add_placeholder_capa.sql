@@ -0,0 +1,6 @@
+/* =========================================================
+   Placeholder (LQIP) das capas de álbum
+   JPEG de até 16 px como data URI, gerado no upload pela API
+   ========================================================= */
+
+ALTER TABLE album_capa ADD COLUMN placeholder VARCHAR(2000);
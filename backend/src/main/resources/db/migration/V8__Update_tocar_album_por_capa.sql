@@ -0,0 +1,19 @@
+/* =========================================================
+   Remover uma capa também altera a capa exibida do álbum
+   ========================================================= */
+
+CREATE OR REPLACE FUNCTION tocar_album_por_capa()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE album
+       SET dataAtualizacao = CURRENT_TIMESTAMP
+     WHERE idAlbum = COALESCE(NEW.idAlbum, OLD.idAlbum);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER tgAlbumCapaTocaAlbum ON album_capa;
+
+CREATE TRIGGER tgAlbumCapaTocaAlbum
+AFTER INSERT OR UPDATE OR DELETE ON album_capa
+FOR EACH ROW EXECUTE FUNCTION tocar_album_por_capa();
@@ -0,0 +1,23 @@
+/* =========================================================
+   Renomear o artista altera o nome exibido nos álbuns e bandas
+   ========================================================= */
+
+CREATE OR REPLACE FUNCTION tocar_por_nome_artista()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE album
+       SET dataAtualizacao = CURRENT_TIMESTAMP
+     WHERE idArtista = NEW.idArtista;
+
+    UPDATE banda
+       SET dataAtualizacao = CURRENT_TIMESTAMP
+     WHERE idBanda IN (SELECT idBanda FROM bandaArtista WHERE idArtista = NEW.idArtista);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tgArtistaNomeTocaAlbumBanda
+AFTER UPDATE OF nomeArtista ON artista
+FOR EACH ROW
+WHEN (OLD.nomeArtista IS DISTINCT FROM NEW.nomeArtista)
+EXECUTE FUNCTION tocar_por_nome_artista();
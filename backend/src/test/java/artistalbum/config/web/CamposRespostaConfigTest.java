@@ -0,0 +1,48 @@
+package artistalbum.config.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seplag.artistalbum.config.web.CamposRespostaConfig;
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.domain.artista.dto.ArtistaDTO;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CamposRespostaConfigTest {
+
+    @Test
+    void shouldSerializeOnlyRequestedArtistFields() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new CamposRespostaConfig().filtrosCamposResposta().customize(builder);
+        ObjectMapper objectMapper = builder.build();
+        MappingJackson2HttpMessageConverter conversor = new MappingJackson2HttpMessageConverter(objectMapper);
+
+        ArtistaDTO artista = new ArtistaDTO(5L, "Elis Regina", List.of(new AlbumDTO(10L, "Falso Brilhante", null, null)),
+                1, null, null, List.of());
+
+        MockHttpOutputMessage saida = new MockHttpOutputMessage();
+        conversor.write(CamposResposta.de("id,nome,albuns", null).aplicar(List.of(artista), CamposResposta.FILTRO_ARTISTA),
+                MediaType.APPLICATION_JSON, saida);
+        JsonNode json = objectMapper.readTree(saida.getBodyAsBytes()).get(0);
+
+        assertEquals("Elis Regina", json.get("nome").asText());
+        assertFalse(json.has("bandas"));
+        assertFalse(json.has("quantidadeAlbuns"));
+        // Álbuns aninhados não são afetados pelo filtro do artista
+        assertTrue(json.get("albuns").get(0).has("titulo"));
+
+        // Sem fields a serialização continua completa
+        JsonNode completo = objectMapper.readTree(objectMapper.writeValueAsBytes(artista));
+        assertTrue(completo.has("quantidadeAlbuns"));
+    }
+}
@@ -0,0 +1,59 @@
+package artistalbum.config.web;
+
+import com.seplag.artistalbum.config.web.ConversoresBinariosConfig;
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.shared.dto.CatalogoResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversoresBinariosConfigTest {
+
+    @Test
+    void shouldRoundTripCatalogSmallerThanJson() throws Exception {
+        ConversoresBinariosConfig config = new ConversoresBinariosConfig();
+        CatalogoResponseDTO catalogo = catalogoDeExemplo();
+
+        byte[] json = escrever(new MappingJackson2HttpMessageConverter(new Jackson2ObjectMapperBuilder().build()),
+                catalogo, MediaType.APPLICATION_JSON);
+        byte[] cbor = escrever(config.conversorCbor(new Jackson2ObjectMapperBuilder()),
+                catalogo, MediaType.valueOf("application/cbor"));
+        byte[] smile = escrever(config.conversorSmile(new Jackson2ObjectMapperBuilder()),
+                catalogo, MediaType.valueOf("application/x-jackson-smile"));
+
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+
+        CatalogoResponseDTO lido = (CatalogoResponseDTO) config.conversorCbor(new Jackson2ObjectMapperBuilder())
+                .read(CatalogoResponseDTO.class, new MockHttpInputMessage(cbor));
+        assertEquals(200, lido.getAlbuns().size());
+        assertEquals(catalogo.getAlbuns().get(7).getDataCriacao(), lido.getAlbuns().get(7).getDataCriacao());
+    }
+
+    private byte[] escrever(AbstractJackson2HttpMessageConverter conversor, Object valor, MediaType tipo) throws Exception {
+        MockHttpOutputMessage saida = new MockHttpOutputMessage();
+        conversor.write(valor, tipo, saida);
+        return saida.getBodyAsBytes();
+    }
+
+    private CatalogoResponseDTO catalogoDeExemplo() {
+        List<AlbumDTO> albuns = new ArrayList<>();
+        for (long i = 0; i < 200; i++) {
+            AlbumDTO album = new AlbumDTO(i, "Álbum " + i, 1L, "Artista",
+                    "/v1/albums/" + i + "/capa", LocalDateTime.of(2026, 1, 1, 10, 0), LocalDateTime.of(2026, 1, 2, 10, 0));
+            albuns.add(album);
+        }
+        return new CatalogoResponseDTO(List.of(), albuns, List.of());
+    }
+}
@@ -0,0 +1,65 @@
+package artistalbum.domain.album.controller;
+
+import com.seplag.artistalbum.domain.album.controller.AlbumResource;
+import com.seplag.artistalbum.domain.album.model.AlbumCapaModel;
+import com.seplag.artistalbum.domain.album.model.AlbumModel;
+import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
+import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.shared.model.ConteudoImagemModel;
+import com.seplag.artistalbum.shared.repository.ConteudoImagemRepository;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.ImagemStreamService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
+import com.seplag.artistalbum.shared.service.UploadDiretoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class AlbumResourceTest {
+
+    private final AlbumCapaRepository albumCapaRepository = mock(AlbumCapaRepository.class);
+    private final ConteudoImagemRepository conteudoImagemRepository = mock(ConteudoImagemRepository.class);
+    private final ImagemStreamService imagemStreamService = mock(ImagemStreamService.class);
+
+    @Test
+    void shouldServePngCoverWithStoredTypeAndDerivativesAsJpeg() throws Exception {
+        String hash = "c".repeat(64);
+        String chave = ConteudoImagemService.chave(hash);
+        AlbumModel album = new AlbumModel();
+        album.setIdAlbum(7L);
+        AlbumCapaModel capa = new AlbumCapaModel(album, chave);
+        capa.setDerivados(true);
+        ConteudoImagemModel conteudo = mock(ConteudoImagemModel.class);
+        when(conteudo.getTipoConteudo()).thenReturn("image/png");
+        when(albumCapaRepository.findById(3L)).thenReturn(Optional.of(capa));
+        when(conteudoImagemRepository.findById(hash)).thenReturn(Optional.of(conteudo));
+        when(imagemStreamService.entregar(any(), any(), any())).thenReturn(ResponseEntity.ok().build());
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AlbumResource(mock(AlbumService.class),
+                mock(MinioService.class), imagemStreamService, mock(UploadDiretoService.class),
+                new ConteudoImagemService(conteudoImagemRepository, mock(TransferenciaImagensService.class),
+                        new TransactionTemplate(mock(PlatformTransactionManager.class))),
+                mock(AlbumRepository.class), albumCapaRepository)).build();
+
+        mockMvc.perform(get("/v1/albums/7/capas/3/arquivo"));
+        mockMvc.perform(get("/v1/albums/7/capas/3/arquivo").param("size", "256"));
+
+        verify(imagemStreamService).entregar(eq(chave), eq("image/png"), any());
+        verify(imagemStreamService).entregar(eq(DerivadosImagemService.chaveDerivado(chave, 256)), eq("image/jpeg"), any());
+    }
+}
@@ -9,15 +9,40 @@ import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
 import com.seplag.artistalbum.domain.album.service.AlbumService;
 import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
 import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
 import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
+import com.seplag.artistalbum.shared.repository.ConteudoImagemRepository;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,13 +55,19 @@ class AlbumServiceCrudTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         AlbumService service = new AlbumService(
                 albumRepository,
                 albumCapaRepository,
                 artistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         ArtistaModel artista = new ArtistaModel("Djavan");
@@ -66,13 +97,19 @@ class AlbumServiceCrudTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         AlbumService service = new AlbumService(
                 albumRepository,
                 albumCapaRepository,
                 artistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         ArtistaModel artistaAtual = new ArtistaModel("Djavan");
@@ -105,13 +142,19 @@ class AlbumServiceCrudTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         AlbumService service = new AlbumService(
                 albumRepository,
                 albumCapaRepository,
                 artistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         when(albumRepository.existsById(10L)).thenReturn(true);
@@ -120,4 +163,151 @@ class AlbumServiceCrudTest {
 
         verify(albumRepository).deleteById(10L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStreamEachCoverToMinioWithoutBufferingWholeFiles() throws Exception {
+        AlbumRepository albumRepository = mock(AlbumRepository.class);
+        MinioService minioService = mock(MinioService.class);
+        DerivadosImagemService derivadosImagem = mock(DerivadosImagemService.class);
+        TransferenciaImagensService transferenciaImagens = new TransferenciaImagensService(minioService, 2);
+
+        AlbumService service = new AlbumService(
+                albumRepository,
+                mock(AlbumCapaRepository.class),
+                mock(ArtistaRepository.class),
+                minioService,
+                derivadosImagem,
+                transferenciaImagens,
+                new ConteudoImagemService(mock(ConteudoImagemRepository.class), transferenciaImagens,
+                        new TransactionTemplate(mock(PlatformTransactionManager.class))),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
+        );
+
+        AlbumModel album = new AlbumModel("Luz", new ArtistaModel("Djavan"));
+        album.setIdAlbum(10L);
+        when(albumRepository.existsById(10L)).thenReturn(true);
+        when(albumRepository.findById(10L)).thenReturn(Optional.of(album));
+        when(albumRepository.save(album)).thenReturn(album);
+
+        Set<String> abertos = ConcurrentHashMap.newKeySet();
+        List<AlbumService.UploadCapa> uploads = List.of(
+                new AlbumService.UploadCapa("a.png", 3, "image/png", () -> {
+                    abertos.add("a.png");
+                    return new ByteArrayInputStream(new byte[3]);
+                }),
+                new AlbumService.UploadCapa("b.png", 5, "image/png", () -> {
+                    abertos.add("b.png");
+                    return new ByteArrayInputStream(new byte[5]);
+                })
+        );
+
+        service.adicionarCapas(10L, uploads);
+
+        assertEquals(Set.of("a.png", "b.png"), abertos);
+        verify(minioService).uploadStream(startsWith("conteudo/"), any(InputStream.class), eq(3L), eq("image/png"));
+        verify(minioService).uploadStream(startsWith("conteudo/"), any(InputStream.class), eq(5L), eq("image/png"));
+        verify(minioService, never()).uploadFile(anyString(), any(byte[].class), anyString());
+        assertEquals(2, album.getCapas().size());
+        assertTrue(album.getCapas().get(0).isPrincipal());
+        verify(derivadosImagem).gerarDoArmazenamento(eq(album.getCapas().get(0).getChaveObjeto()), any(Runnable.class));
+    }
+
+    @Test
+    void shouldUploadOutsideTransactionAndRemoveUploadWhenMetadataCommitFails() throws Exception {
+        AlbumRepository albumRepository = mock(AlbumRepository.class);
+        MinioService minioService = mock(MinioService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransferenciaImagensService transferenciaImagens = new TransferenciaImagensService(minioService, 2);
+
+        AlbumService service = new AlbumService(
+                albumRepository,
+                mock(AlbumCapaRepository.class),
+                mock(ArtistaRepository.class),
+                minioService,
+                mock(DerivadosImagemService.class),
+                transferenciaImagens,
+                new ConteudoImagemService(mock(ConteudoImagemRepository.class), transferenciaImagens,
+                        new TransactionTemplate(mock(PlatformTransactionManager.class))),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(transactionManager)
+        );
+
+        AlbumModel album = new AlbumModel("Luz", new ArtistaModel("Djavan"));
+        album.setIdAlbum(10L);
+        when(albumRepository.existsById(10L)).thenReturn(true);
+        when(albumRepository.findById(10L)).thenReturn(Optional.of(album));
+        when(albumRepository.save(album)).thenThrow(new IllegalStateException("banco indisponível"));
+        when(minioService.deleteFileAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThrows(IllegalStateException.class, () -> service.fazerUploadImagemCapa(10L,
+                new AlbumService.UploadCapa("a.png", 3, "image/png", () -> new ByteArrayInputStream(new byte[3]))));
+
+        // O PUT termina antes de a transação dos metadados começar
+        InOrder ordem = inOrder(minioService, transactionManager);
+        ArgumentCaptor<String> chave = ArgumentCaptor.forClass(String.class);
+        ordem.verify(minioService).uploadStream(chave.capture(), any(InputStream.class), eq(3L), eq("image/png"));
+        ordem.verify(transactionManager).getTransaction(any());
+        ordem.verify(minioService).deleteFileAsync(chave.getValue());
+    }
+
+    @Test
+    void shouldReuseStoredContentInsteadOfUploadingAgain() throws Exception {
+        AlbumRepository albumRepository = mock(AlbumRepository.class);
+        AlbumCapaRepository albumCapaRepository = mock(AlbumCapaRepository.class);
+        MinioService minioService = mock(MinioService.class);
+        DerivadosImagemService derivadosImagem = mock(DerivadosImagemService.class);
+        ConteudoImagemRepository conteudoImagemRepository = mock(ConteudoImagemRepository.class);
+        TransferenciaImagensService transferenciaImagens = new TransferenciaImagensService(minioService, 2);
+
+        AlbumService service = new AlbumService(
+                albumRepository,
+                albumCapaRepository,
+                mock(ArtistaRepository.class),
+                minioService,
+                derivadosImagem,
+                transferenciaImagens,
+                new ConteudoImagemService(conteudoImagemRepository, transferenciaImagens,
+                        new TransactionTemplate(mock(PlatformTransactionManager.class))),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
+        );
+
+        byte[] dados = png(40, 20);
+        String hash = ConteudoImagemService.calcularHash(dados);
+        String chave = ConteudoImagemService.chave(hash);
+        AlbumModel album = new AlbumModel("Luz", new ArtistaModel("Djavan"));
+        album.setIdAlbum(10L);
+        when(albumRepository.existsById(10L)).thenReturn(true);
+        when(albumRepository.findById(10L)).thenReturn(Optional.of(album));
+        when(albumRepository.save(album)).thenReturn(album);
+        when(conteudoImagemRepository.findHashesExistentes(List.of(hash, hash))).thenReturn(List.of(hash));
+        when(conteudoImagemRepository.travar(hash)).thenReturn(1);
+        when(albumCapaRepository.existsByChaveObjetoAndDerivadosTrue(chave)).thenReturn(true);
+
+        // A mesma arte duas vezes, já armazenada por outro álbum
+        service.adicionarCapas(10L, List.of(
+                new AlbumService.UploadCapa("frente.png", dados.length, "image/png", () -> new ByteArrayInputStream(dados)),
+                new AlbumService.UploadCapa("copia.png", dados.length, "image/png", () -> new ByteArrayInputStream(dados))));
+
+        verify(minioService, never()).uploadStream(anyString(), any(InputStream.class), any(Long.class), anyString());
+        verify(conteudoImagemRepository, never()).inserir(anyString(), anyString(), any(Long.class), anyString());
+        assertEquals(2, album.getCapas().size());
+        assertEquals(chave, album.getCapas().get(0).getChaveObjeto());
+        assertEquals(chave, album.getCapas().get(1).getChaveObjeto());
+        assertTrue(album.getCapas().get(1).isDerivados());
+        verify(derivadosImagem, never()).gerarDoArmazenamento(anyString(), any(Runnable.class));
+        // Placeholder calculado uma vez para o conteúdo e gravado nas duas capas
+        assertTrue(album.getCapas().get(0).getPlaceholder().startsWith("data:image/jpeg;base64,"));
+        assertEquals(album.getCapas().get(0).getPlaceholder(), album.getCapas().get(1).getPlaceholder());
+    }
+
+    private static byte[] png(int largura, int altura) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB), "png", saida);
+        return saida.toByteArray();
+    }
+}
@@ -2,23 +2,42 @@ package artistalbum.domain.album.service;
 
 
 import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.domain.album.model.AlbumCapaModel;
 import com.seplag.artistalbum.domain.album.model.AlbumModel;
 import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
 import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
 import com.seplag.artistalbum.domain.album.service.AlbumService;
 import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
 import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
 import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class AlbumServiceFindAllTest {
@@ -30,13 +49,19 @@ class AlbumServiceFindAllTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         AlbumService service = new AlbumService(
                 albumRepository,
                 albumCapaRepository,
                 artistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         ArtistaModel artista = new ArtistaModel("Djavan");
@@ -52,4 +77,108 @@ class AlbumServiceFindAllTest {
         assertEquals("Luz", resultado.get(0).getTitulo());
         verify(albumRepository).findAll(Sort.by("tituloAlbum").ascending());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldResolvePageCoversWithFixedQueryCount() {
+        AlbumRepository albumRepository = mock(AlbumRepository.class);
+        MinioService minioService = mock(MinioService.class);
+
+        AlbumService service = new AlbumService(
+                albumRepository,
+                mock(AlbumCapaRepository.class),
+                mock(ArtistaRepository.class),
+                minioService,
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
+        );
+
+        ArtistaModel artista = new ArtistaModel("Djavan");
+        artista.setIdArtista(1L);
+        List<AlbumCapaModel> capasLazy = mock(List.class);
+        List<AlbumModel> albuns = new ArrayList<>();
+        List<Object[]> chaves = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            AlbumModel album = new AlbumModel("Álbum " + id, artista);
+            album.setIdAlbum(id);
+            // Qualquer acesso à coleção lazy seria uma consulta extra por álbum
+            album.setCapas(capasLazy);
+            albuns.add(album);
+            chaves.add(new Object[]{id, "album-covers/" + id + "/capa.jpg", false, id == 42 ? "data:image/jpeg;base64,AAAA" : null});
+        }
+
+        Pageable pagina = PageRequest.of(0, 100, Sort.by("tituloAlbum").ascending());
+        when(albumRepository.findAll(pagina)).thenReturn(new PageImpl<>(albuns, pagina, 100));
+        when(albumRepository.findChavesCapaPrincipal(anyCollection())).thenReturn(chaves);
+        when(minioService.generatePresignedUrls30Min(anyCollection()))
+                .thenReturn(Map.of("album-covers/42/capa.jpg", "http://minio/42"));
+
+        Page<AlbumDTO> resultado = service.listarTodosAlbuns(PageRequest.of(0, 100), "asc");
+
+        assertEquals(100, resultado.getContent().size());
+        assertEquals("/v1/albums/42/capa", resultado.getContent().get(41).getUrlImagemCapa());
+        assertEquals("http://minio/42", resultado.getContent().get(41).getUrlImagemCapaAssinada());
+        assertEquals("data:image/jpeg;base64,AAAA", resultado.getContent().get(41).getPlaceholderCapa());
+        assertNull(resultado.getContent().get(40).getPlaceholderCapa());
+        // Página + capas principais: duas consultas, independente do tamanho da página
+        assertEquals(2, mockingDetails(albumRepository).getInvocations().size());
+        verify(albumRepository).findChavesCapaPrincipal(anyCollection());
+        verify(minioService).generatePresignedUrls30Min(anyCollection());
+        verifyNoInteractions(capasLazy);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamAlbumsResolvingCoversPerBatch() {
+        AlbumRepository albumRepository = mock(AlbumRepository.class);
+        MinioService minioService = mock(MinioService.class);
+
+        AlbumService service = new AlbumService(
+                albumRepository,
+                mock(AlbumCapaRepository.class),
+                mock(ArtistaRepository.class),
+                minioService,
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
+        );
+
+        ArtistaModel artista = new ArtistaModel("Djavan");
+        artista.setIdArtista(1L);
+        List<AlbumCapaModel> capasLazy = mock(List.class);
+        List<AlbumModel> albuns = new ArrayList<>();
+        for (long id = 1; id <= 450; id++) {
+            AlbumModel album = new AlbumModel("Álbum " + id, artista);
+            album.setIdAlbum(id);
+            album.setCapas(capasLazy);
+            albuns.add(album);
+        }
+        when(albumRepository.streamAllOrderByTitulo()).thenReturn(albuns.stream());
+        when(albumRepository.findChavesCapaPrincipal(anyCollection())).thenAnswer(invocacao -> {
+            List<Object[]> chaves = new ArrayList<>();
+            for (Long id : (Collection<Long>) invocacao.getArgument(0)) {
+                chaves.add(new Object[]{id, "album-covers/" + id + "/capa.jpg", false, null});
+            }
+            return chaves;
+        });
+        when(minioService.generatePresignedUrls30Min(anyCollection())).thenReturn(Map.of());
+
+        List<AlbumDTO> resultado = new ArrayList<>();
+        service.percorrerTodosAlbuns(resultado::add);
+
+        assertEquals(450, resultado.size());
+        assertEquals("/v1/albums/450/capa", resultado.get(449).getUrlImagemCapa());
+        // Stream + uma consulta de capas por lote de 200 (200, 200, 50), nenhuma por álbum
+        verify(albumRepository, times(3)).findChavesCapaPrincipal(anyCollection());
+        assertEquals(4, mockingDetails(albumRepository).getInvocations().size());
+        verify(minioService, times(3)).generatePresignedUrls30Min(anyCollection());
+        verifyNoInteractions(capasLazy);
+    }
+}
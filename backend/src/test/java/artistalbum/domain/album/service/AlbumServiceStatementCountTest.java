@@ -0,0 +1,116 @@
+package artistalbum.domain.album.service;
+
+import artistalbum.shared.repository.PostgresRepositoryTestBase;
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
+import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+// Contagem real de comandos SQL: artista e capa de cada álbum não podem virar uma consulta por linha
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AlbumServiceStatementCountTest extends PostgresRepositoryTestBase {
+
+    private static final int ALBUNS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private AlbumCapaRepository albumCapaRepository;
+
+    @Autowired
+    private ArtistaRepository artistaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AlbumService service;
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        service = new AlbumService(
+                albumRepository,
+                albumCapaRepository,
+                artistaRepository,
+                mock(MinioService.class),
+                mock(DerivadosImagemService.class),
+                mock(TransferenciaImagensService.class),
+                mock(ConteudoImagemService.class),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(transactionManager)
+        );
+
+        // Um artista por álbum e duas capas em cada; títulos que vêm antes dos dados iniciais na ordenação
+        for (int i = 1; i <= ALBUNS; i++) {
+            Long idArtista = jdbcTemplate.queryForObject(
+                    "INSERT INTO artista (nomeArtista) VALUES (?) RETURNING idArtista", Long.class, "Artista " + i);
+            Long idAlbum = jdbcTemplate.queryForObject(
+                    "INSERT INTO album (tituloAlbum, idArtista) VALUES (?, ?) RETURNING idAlbum", Long.class, "0 Album " + i, idArtista);
+            jdbcTemplate.update("INSERT INTO album_capa (idAlbum, chaveObjeto, principal) VALUES (?, ?, true), (?, ?, false)",
+                    idAlbum, "album-covers/" + idAlbum + "/frente.jpg", idAlbum, "album-covers/" + idAlbum + "/verso.jpg");
+        }
+
+        entityManager.clear();
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void shouldLoadPageOfAlbumsWithArtistsAndCoversInFixedStatements() {
+        Page<AlbumDTO> pagina = service.listarTodosAlbuns(PageRequest.of(0, ALBUNS), "asc");
+
+        assertEquals(ALBUNS, pagina.getNumberOfElements());
+        pagina.forEach(album -> {
+            assertEquals("Artista " + album.getTitulo().substring("0 Album ".length()), album.getNomeArtista());
+            assertEquals("/v1/albums/" + album.getId() + "/capa", album.getUrlImagemCapa());
+        });
+        // Álbuns com artista, contagem da página e capas principais
+        assertEquals(3, estatisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldListWholeCatalogWithArtistsInFixedStatements() {
+        List<AlbumDTO> albuns = service.listarTodosAlbunsNovo();
+
+        albuns.forEach(album -> assertNotNull(album.getNomeArtista()));
+        // Álbuns com artista e capas principais, qualquer que seja o número de artistas distintos
+        assertEquals(2, estatisticas.getPrepareStatementCount());
+    }
+}
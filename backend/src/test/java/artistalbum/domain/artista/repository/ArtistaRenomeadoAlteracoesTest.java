@@ -0,0 +1,68 @@
+package artistalbum.domain.artista.repository;
+
+import artistalbum.shared.repository.PostgresRepositoryTestBase;
+import com.seplag.artistalbum.domain.album.model.AlbumModel;
+import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
+import com.seplag.artistalbum.domain.banda.model.BandaModel;
+import com.seplag.artistalbum.domain.banda.repository.BandaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sem a transação do teste: cada comando confirma sozinho e ganha o próprio CURRENT_TIMESTAMP
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArtistaRenomeadoAlteracoesTest extends PostgresRepositoryTestBase {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private BandaRepository bandaRepository;
+
+    @Test
+    void shouldReturnAlbumsAndBandsOfRenamedArtistAsChanged() {
+        long idArtista = inserir("INSERT INTO artista (nomeArtista) VALUES ('Renomeável') RETURNING idArtista");
+        long idOutro = inserir("INSERT INTO artista (nomeArtista) VALUES ('Intocado') RETURNING idArtista");
+        long idAlbum = inserir("INSERT INTO album (tituloAlbum, idArtista) VALUES ('Primeiro', ?) RETURNING idAlbum", idArtista);
+        inserir("INSERT INTO album (tituloAlbum, idArtista) VALUES ('Outro', ?) RETURNING idAlbum", idOutro);
+        long idBanda = inserir("INSERT INTO banda (nomeBanda) VALUES ('Banda Renomeável') RETURNING idBanda");
+        jdbcTemplate.update("INSERT INTO bandaArtista (idBanda, idArtista) VALUES (?, ?)", idBanda, idArtista);
+
+        try {
+            LocalDateTime desde = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+
+            // Outras colunas não mudam o que álbuns e bandas exibem
+            jdbcTemplate.update("UPDATE artista SET fotoArtista = 'foto' WHERE idArtista = ?", idArtista);
+            jdbcTemplate.update("UPDATE artista SET nomeArtista = 'Renomeável' WHERE idArtista = ?", idArtista);
+            assertTrue(albumRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde).isEmpty());
+            assertTrue(bandaRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde).isEmpty());
+
+            jdbcTemplate.update("UPDATE artista SET nomeArtista = 'Renomeado' WHERE idArtista = ?", idArtista);
+
+            List<Long> albuns = albumRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde).stream()
+                    .map(AlbumModel::getIdAlbum).toList();
+            List<Long> bandas = bandaRepository.findByDataAtualizacaoAfterOrderByDataAtualizacaoAsc(desde).stream()
+                    .map(BandaModel::getIdBanda).toList();
+            assertEquals(List.of(idAlbum), albuns);
+            assertEquals(List.of(idBanda), bandas);
+        } finally {
+            jdbcTemplate.update("DELETE FROM banda WHERE idBanda = ?", idBanda);
+            jdbcTemplate.update("DELETE FROM artista WHERE idArtista IN (?, ?)", idArtista, idOutro);
+        }
+    }
+
+    private long inserir(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject(sql, Long.class, parametros);
+    }
+}
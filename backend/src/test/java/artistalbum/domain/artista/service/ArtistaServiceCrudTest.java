@@ -7,15 +7,28 @@ import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
 import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
 import com.seplag.artistalbum.domain.artista.service.ArtistaService;
 import com.seplag.artistalbum.domain.banda.repository.BandaArtistaRepository;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
 import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,13 +41,18 @@ class ArtistaServiceCrudTest {
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         ArtistaService service = new ArtistaService(
                 artistaRepository,
                 albumRepository,
                 bandaArtistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         ArtistaRequestDTO request = new ArtistaRequestDTO();
@@ -59,13 +77,18 @@ class ArtistaServiceCrudTest {
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         ArtistaService service = new ArtistaService(
                 artistaRepository,
                 albumRepository,
                 bandaArtistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         ArtistaModel existente = new ArtistaModel("Antigo");
@@ -91,13 +114,18 @@ class ArtistaServiceCrudTest {
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         ArtistaService service = new ArtistaService(
                 artistaRepository,
                 albumRepository,
                 bandaArtistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         when(artistaRepository.existsById(5L)).thenReturn(true);
@@ -106,4 +134,50 @@ class ArtistaServiceCrudTest {
 
         verify(artistaRepository).deleteById(5L);
     }
+
+    @Test
+    void shouldReuseDerivativesOfStoredContentForArtistPhoto() throws Exception {
+        ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
+        AlbumRepository albumRepository = mock(AlbumRepository.class);
+        MinioService minioService = mock(MinioService.class);
+        DerivadosImagemService derivadosImagem = mock(DerivadosImagemService.class);
+        ConteudoImagemService conteudoImagem = mock(ConteudoImagemService.class);
+
+        ArtistaService service = new ArtistaService(
+                artistaRepository,
+                albumRepository,
+                mock(BandaArtistaRepository.class),
+                minioService,
+                derivadosImagem,
+                conteudoImagem,
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
+        );
+
+        byte[] dados = png();
+        String hash = ConteudoImagemService.calcularHash(dados);
+        String chave = ConteudoImagemService.chave(hash);
+        ArtistaModel artista = new ArtistaModel("Elis Regina");
+        artista.setIdArtista(5L);
+        when(artistaRepository.existsById(5L)).thenReturn(true);
+        when(artistaRepository.findById(5L)).thenReturn(Optional.of(artista));
+        when(artistaRepository.save(artista)).thenReturn(artista);
+        when(conteudoImagem.armazenados(List.of(hash))).thenReturn(Set.of(hash));
+        // A mesma imagem já é capa de um álbum, com miniaturas prontas
+        when(albumRepository.existsCapaComDerivados(chave)).thenReturn(true);
+
+        service.atualizarFotoArtista(5L, dados, "elis.png", "image/png");
+
+        assertEquals(chave, artista.getFotoArtista());
+        assertTrue(artista.isFotoDerivados());
+        verify(minioService, never()).uploadFile(anyString(), any(byte[].class), anyString());
+        verify(derivadosImagem, never()).gerar(anyString(), any(byte[].class), any(Runnable.class));
+    }
+
+    private static byte[] png() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", saida);
+        return saida.toByteArray();
+    }
 }
\ No newline at end of file
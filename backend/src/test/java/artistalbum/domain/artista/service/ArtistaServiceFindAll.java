@@ -6,10 +6,15 @@ import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
 import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
 import com.seplag.artistalbum.domain.artista.service.ArtistaService;
 import com.seplag.artistalbum.domain.banda.repository.BandaArtistaRepository;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
 import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -28,13 +33,18 @@ class ArtistaServiceFindAllTest {
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         MinioService minioService = mock(MinioService.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         ArtistaService service = new ArtistaService(
                 artistaRepository,
                 albumRepository,
                 bandaArtistaRepository,
                 minioService,
-                messagingTemplate
+                mock(DerivadosImagemService.class),
+                mock(ConteudoImagemService.class),
+                messagingTemplate,
+                eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
 
         ArtistaModel artista = new ArtistaModel("Elis Regina");
@@ -0,0 +1,106 @@
+package artistalbum.domain.artista.service;
+
+import com.seplag.artistalbum.domain.album.model.AlbumModel;
+import com.seplag.artistalbum.domain.album.repository.AlbumRepository;
+import com.seplag.artistalbum.domain.artista.dto.ArtistaDTO;
+import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
+import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.repository.BandaArtistaRepository;
+import com.seplag.artistalbum.shared.dto.CamposResposta;
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ArtistaServicePesquisaTest {
+
+    private final ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
+    private final AlbumRepository albumRepository = mock(AlbumRepository.class);
+    private final BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
+    private final MinioService minioService = mock(MinioService.class);
+
+    private final ArtistaService service = new ArtistaService(
+            artistaRepository,
+            albumRepository,
+            bandaArtistaRepository,
+            minioService,
+            mock(DerivadosImagemService.class),
+            mock(ConteudoImagemService.class),
+            mock(SimpMessagingTemplate.class),
+            mock(ApplicationEventPublisher.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class))
+    );
+
+    @Test
+    void shouldSearchWithSingleQueryWhenOnlyNamesRequested() {
+        Pageable paginacao = PageRequest.of(0, 10);
+        when(artistaRepository.findByNomeContainingIgnoreCase("eli", paginacao))
+                .thenReturn(new PageImpl<>(List.of(artista(5L, "Elis Regina"), artista(6L, "Elis Medeiros")), paginacao, 2));
+
+        Page<ArtistaDTO> resultado = service.pesquisarArtistas("eli", paginacao, CamposResposta.de("id,nome", null));
+
+        assertEquals(2, resultado.getContent().size());
+        assertEquals("Elis Regina", resultado.getContent().get(0).getNome());
+        assertNull(resultado.getContent().get(0).getAlbuns());
+        verifyNoInteractions(albumRepository, bandaArtistaRepository, minioService);
+    }
+
+    @Test
+    void shouldLoadExpandedAlbumsInOneBatch() {
+        Pageable paginacao = PageRequest.of(0, 10);
+        ArtistaModel elis = artista(5L, "Elis Regina");
+        ArtistaModel tom = artista(7L, "Tom Jobim");
+        when(artistaRepository.findAllOrderByNomeAsc(paginacao))
+                .thenReturn(new PageImpl<>(List.of(elis, tom), paginacao, 2));
+        AlbumModel falso = new AlbumModel("Falso Brilhante", elis);
+        falso.setIdAlbum(10L);
+        AlbumModel elisETom = new AlbumModel("Elis & Tom", elis);
+        elisETom.setIdAlbum(11L);
+        when(albumRepository.findByArtista_IdArtistaInOrderByTituloAlbumAsc(anyCollection()))
+                .thenReturn(List.of(elisETom, falso));
+        when(albumRepository.findChavesCapaPrincipal(List.of(11L, 10L)))
+                .thenReturn(List.<Object[]>of(new Object[]{11L, "album-covers/11/capa.jpg", false, null}));
+        when(minioService.generatePresignedUrls30Min(List.of("album-covers/11/capa.jpg")))
+                .thenReturn(Map.of("album-covers/11/capa.jpg", "http://minio/assinada"));
+
+        Page<ArtistaDTO> resultado = service.obterTodosArtistas(paginacao, "asc", CamposResposta.de(null, "albuns"));
+
+        assertEquals(2, resultado.getContent().get(0).getQuantidadeAlbuns());
+        assertEquals("Elis & Tom", resultado.getContent().get(0).getAlbuns().get(0).getTitulo());
+        assertEquals(0, resultado.getContent().get(1).getQuantidadeAlbuns());
+        assertEquals("http://minio/assinada", resultado.getContent().get(0).getAlbuns().get(0).getUrlImagemCapaAssinada());
+        assertNull(resultado.getContent().get(0).getBandas());
+        verify(albumRepository).findByArtista_IdArtistaInOrderByTituloAlbumAsc(List.of(5L, 7L));
+        // Uma única assinatura em lote para a página, nenhuma por álbum
+        verify(minioService).generatePresignedUrls30Min(List.of("album-covers/11/capa.jpg"));
+        verifyNoMoreInteractions(minioService);
+        verifyNoInteractions(bandaArtistaRepository);
+    }
+
+    private ArtistaModel artista(Long id, String nome) {
+        ArtistaModel artista = new ArtistaModel(nome);
+        artista.setIdArtista(id);
+        return artista;
+    }
+}
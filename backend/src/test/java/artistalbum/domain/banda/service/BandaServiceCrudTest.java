@@ -8,6 +8,7 @@ import com.seplag.artistalbum.domain.banda.repository.BandaArtistaRepository;
 import com.seplag.artistalbum.domain.banda.repository.BandaRepository;
 import com.seplag.artistalbum.domain.banda.service.BandaService;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.util.Optional;
@@ -26,12 +27,14 @@ class BandaServiceCrudTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         BandaService service = new BandaService(
                 bandaRepository,
                 artistaRepository,
                 bandaArtistaRepository,
-                messagingTemplate
+                messagingTemplate,
+                eventPublisher
         );
 
         BandaRequestDTO request = new BandaRequestDTO();
@@ -56,12 +59,14 @@ class BandaServiceCrudTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         BandaService service = new BandaService(
                 bandaRepository,
                 artistaRepository,
                 bandaArtistaRepository,
-                messagingTemplate
+                messagingTemplate,
+                eventPublisher
         );
 
         BandaModel existente = new BandaModel();
@@ -87,12 +92,14 @@ class BandaServiceCrudTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         BandaService service = new BandaService(
                 bandaRepository,
                 artistaRepository,
                 bandaArtistaRepository,
-                messagingTemplate
+                messagingTemplate,
+                eventPublisher
         );
 
         when(bandaRepository.existsById(3L)).thenReturn(true);
@@ -1,15 +1,19 @@
 package artistalbum.domain.banda.service;
 
+import com.seplag.artistalbum.domain.artista.model.ArtistaModel;
 import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
 import com.seplag.artistalbum.domain.banda.dto.BandaResponseDTO;
+import com.seplag.artistalbum.domain.banda.model.BandaArtistaModel;
 import com.seplag.artistalbum.domain.banda.model.BandaModel;
 import com.seplag.artistalbum.domain.banda.repository.BandaArtistaRepository;
 import com.seplag.artistalbum.domain.banda.repository.BandaRepository;
 import com.seplag.artistalbum.domain.banda.service.BandaService;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -26,12 +30,14 @@ class BandaServiceFindAllTest {
         ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
         BandaArtistaRepository bandaArtistaRepository = mock(BandaArtistaRepository.class);
         SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
 
         BandaService service = new BandaService(
                 bandaRepository,
                 artistaRepository,
                 bandaArtistaRepository,
-                messagingTemplate
+                messagingTemplate,
+                eventPublisher
         );
 
         BandaModel banda = new BandaModel();
@@ -46,4 +52,45 @@ class BandaServiceFindAllTest {
         assertEquals("Os Mutantes", resultado.get(0).getNomeBanda());
         verify(bandaRepository).findAll(Sort.by("nomeBanda").ascending());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStreamBandsConvertingWholeBatchesWithArtists() {
+        BandaRepository bandaRepository = mock(BandaRepository.class);
+        BandaService service = new BandaService(
+                bandaRepository,
+                mock(ArtistaRepository.class),
+                mock(BandaArtistaRepository.class),
+                mock(SimpMessagingTemplate.class),
+                mock(ApplicationEventPublisher.class)
+        );
+
+        ArtistaModel artista = new ArtistaModel("Rita Lee");
+        artista.setIdArtista(7L);
+        List<BandaModel> bandas = new ArrayList<>();
+        for (long id = 1; id <= 250; id++) {
+            BandaModel banda = new BandaModel();
+            banda.setIdBanda(id);
+            banda.setNomeBanda("Banda " + id);
+            BandaArtistaModel vinculo = new BandaArtistaModel();
+            vinculo.setBanda(banda);
+            vinculo.setArtista(artista);
+            banda.getArtistas().add(vinculo);
+            bandas.add(banda);
+        }
+        int[] lidas = {0};
+        when(bandaRepository.streamAllOrderByNome()).thenReturn(bandas.stream().peek(banda -> lidas[0]++));
+
+        List<Integer> lidasNaEntrega = new ArrayList<>();
+        List<BandaResponseDTO> resultado = new ArrayList<>();
+        service.percorrerTodas(dto -> {
+            lidasNaEntrega.add(lidas[0]);
+            resultado.add(dto);
+        });
+
+        assertEquals(250, resultado.size());
+        assertEquals(7L, resultado.get(249).getArtistas().get(0).getIdArtista());
+        // O lote inteiro está na sessão antes da primeira conversão, então o @BatchSize carrega os vínculos juntos
+        assertEquals(200, lidasNaEntrega.get(0));
+        assertEquals(250, lidasNaEntrega.get(200));
+    }
+}
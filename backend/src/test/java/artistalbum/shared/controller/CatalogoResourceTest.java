@@ -0,0 +1,199 @@
+package artistalbum.shared.controller;
+
+import com.seplag.artistalbum.config.web.ConversoresBinariosConfig;
+import com.seplag.artistalbum.shared.controller.CatalogoResource;
+import com.seplag.artistalbum.shared.dto.CatalogoAlteracoesDTO;
+import com.seplag.artistalbum.shared.dto.CatalogoResponseDTO;
+import com.seplag.artistalbum.shared.exception.GlobalExceptionHandler;
+import com.seplag.artistalbum.shared.service.CatalogoAlteracoesService;
+import com.seplag.artistalbum.shared.service.CatalogoService;
+import com.seplag.artistalbum.shared.service.CatalogoStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CatalogoResourceTest {
+
+    private static final String JSON = "{\"artistas\":[],\"albuns\":[],\"bandas\":[]}";
+    private static final byte[] GZIP = gzip(JSON.getBytes(StandardCharsets.UTF_8));
+
+    private CatalogoService catalogoService;
+    private CatalogoAlteracoesService catalogoAlteracoesService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        catalogoService = mock(CatalogoService.class);
+        when(catalogoService.obterSnapshot()).thenReturn(snapshot(3L));
+        catalogoAlteracoesService = mock(CatalogoAlteracoesService.class);
+
+        ConversoresBinariosConfig conversores = new ConversoresBinariosConfig();
+        mockMvc = MockMvcBuilders.standaloneSetup(new CatalogoResource(catalogoService,
+                        mock(CatalogoStreamService.class), catalogoAlteracoesService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new ByteArrayHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter(new Jackson2ObjectMapperBuilder().build()),
+                        conversores.conversorCbor(new Jackson2ObjectMapperBuilder()),
+                        conversores.conversorSmile(new Jackson2ObjectMapperBuilder()))
+                .build();
+    }
+
+    @Test
+    void shouldServeJsonWithoutAcceptHeader() throws Exception {
+        mockMvc.perform(get("/v1/catalogo"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(content().string(JSON));
+    }
+
+    @Test
+    void shouldServeJsonForWildcardAccept() throws Exception {
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT, "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(content().string(JSON));
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT, "application/*"))
+                .andExpect(content().contentTypeCompatibleWith("application/json"));
+    }
+
+    @Test
+    void shouldServeJsonWhenRequested() throws Exception {
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT, "application/json, application/cbor;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(content().string(JSON));
+    }
+
+    @Test
+    void shouldServeCborOnlyWhenExplicitlyRequested() throws Exception {
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT, "application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/cbor"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000-cbor\""));
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT, "application/x-jackson-smile, */*;q=0.1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000-smile\""));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.IF_NONE_MATCH, "\"3-1000\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void shouldServeNewVersionForStaleEtag() throws Exception {
+        when(catalogoService.obterSnapshot()).thenReturn(snapshot(4L));
+
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.IF_NONE_MATCH, "\"3-1000\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4-1000\""))
+                .andExpect(header().string("X-Catalogo-Versao", "4"))
+                .andExpect(content().string(JSON));
+    }
+
+    @Test
+    void shouldRevalidateGzipVariantWithItsOwnEtag() throws Exception {
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000-gzip\""))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().bytes(GZIP));
+
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-1000-gzip\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        // A ETag de uma codificação não vale para a outra
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.IF_NONE_MATCH, "\"3-1000-gzip\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000\""))
+                .andExpect(content().string(JSON));
+    }
+
+    @Test
+    void shouldLetExplicitGzipEntryOverrideWildcardInAnyOrder() throws Exception {
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT_ENCODING, "*, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(JSON));
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-1000-gzip\""))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(content().bytes(GZIP));
+        // Sem entrada para gzip, vale o coringa
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get("/v1/catalogo").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void shouldListChangesSinceToken() throws Exception {
+        LocalDateTime token = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 250_000_000);
+        when(catalogoAlteracoesService.obterAlteracoesDesde(token)).thenReturn(
+                new CatalogoAlteracoesDTO("2026-03-01T12:30:00.5", List.of(), List.of(), List.of(), List.of()));
+
+        mockMvc.perform(get("/v1/catalogo/changes").param("since", "2026-03-01T12:00:00.25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.proximoToken").value("2026-03-01T12:30:00.5"));
+    }
+
+    @Test
+    void shouldRejectMalformedSinceWithErrorBody() throws Exception {
+        mockMvc.perform(get("/v1/catalogo/changes").param("since", "ontem"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Valor inválido para o parâmetro 'since'"));
+        mockMvc.perform(get("/v1/catalogo/changes"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+        verify(catalogoAlteracoesService, never()).obterAlteracoesDesde(any());
+    }
+
+    private static CatalogoService.CatalogoSnapshot snapshot(long versao) {
+        CatalogoResponseDTO catalogo = new CatalogoResponseDTO(List.of(), List.of(), List.of());
+        return new CatalogoService.CatalogoSnapshot(versao, catalogo, Instant.ofEpochMilli(1000),
+                JSON.getBytes(StandardCharsets.UTF_8), GZIP);
+    }
+
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream compressor = new GZIPOutputStream(saida)) {
+            compressor.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+}
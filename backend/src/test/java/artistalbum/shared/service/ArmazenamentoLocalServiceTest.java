@@ -0,0 +1,107 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.ArmazenamentoLocalService;
+import com.seplag.artistalbum.shared.service.CacheImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArmazenamentoLocalServiceTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1, 2, 3, 4, 5};
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void shouldStoreReadListAndDeleteThroughMinioServiceWithoutMinio() throws Exception {
+        ArmazenamentoLocalService armazenamento = novoArmazenamento();
+        MinioService minioService = novoMinioService(armazenamento);
+
+        minioService.uploadFile("album-covers/1/capa.jpg", JPEG, "image/jpeg");
+        minioService.uploadFile("artist-covers/1/foto.jpg", JPEG, "image/jpeg");
+
+        MinioService.ObjetoInfo info = minioService.obterInfo("album-covers/1/capa.jpg");
+        assertEquals(JPEG.length, info.tamanho());
+        assertEquals("image/jpeg", info.tipoConteudo());
+        assertArrayEquals(JPEG, minioService.downloadFile("album-covers/1/capa.jpg"));
+        try (InputStream trecho = minioService.abrirStream("album-covers/1/capa.jpg", 6, 4)) {
+            assertEquals("JFIF", new String(trecho.readAllBytes()));
+        }
+
+        // Fragmentado pelo hash da chave, fora do diretório temporário e sem sobras da gravação
+        Path arquivo = armazenamento.arquivoLocal("album-covers/1/capa.jpg");
+        assertTrue(Files.isRegularFile(arquivo));
+        assertEquals(diretorio.resolve("objetos"), arquivo.getParent().getParent().getParent());
+        try (Stream<Path> temporarios = Files.list(diretorio.resolve("tmp"))) {
+            assertEquals(0, temporarios.count());
+        }
+
+        try (Stream<MinioService.ObjetoListado> listados = minioService.listFiles("album-covers/", 100)) {
+            assertEquals(List.of("album-covers/1/capa.jpg"), listados.map(MinioService.ObjetoListado::chave).toList());
+        }
+        assertEquals(List.of(), minioService.deleteFiles(List.of("album-covers/1/capa.jpg", "album-covers/2/inexistente.jpg")));
+        assertFalse(minioService.fileExists("album-covers/1/capa.jpg"));
+        assertTrue(minioService.fileExists("artist-covers/1/foto.jpg"));
+    }
+
+    @Test
+    void shouldFailUploadWhenStreamIsShorterThanDeclaredSize() throws Exception {
+        MinioService minioService = novoMinioService(novoArmazenamento());
+
+        assertThrows(Exception.class, () -> minioService.uploadStream("album-covers/1/capa.jpg",
+                new ByteArrayInputStream(JPEG), JPEG.length + 10, "image/jpeg"));
+
+        assertFalse(minioService.fileExists("album-covers/1/capa.jpg"));
+    }
+
+    @Test
+    void shouldSignUrlsForMethodKeyAndExpiry() throws Exception {
+        ArmazenamentoLocalService armazenamento = novoArmazenamento();
+        MinioService minioService = novoMinioService(armazenamento);
+
+        HttpUrl url = HttpUrl.get(minioService.generatePresignedUrl30Min("album-covers/1/minha capa.jpg"));
+        assertEquals("/albumartistaapi/v1/objetos/album-covers/1/minha%20capa.jpg", url.encodedPath());
+        long expira = Long.parseLong(url.queryParameter("expira"));
+        String assinatura = url.queryParameter("assinatura");
+
+        assertTrue(armazenamento.verificar("GET", "album-covers/1/minha capa.jpg", expira, assinatura));
+        assertFalse(armazenamento.verificar("PUT", "album-covers/1/minha capa.jpg", expira, assinatura));
+        assertFalse(armazenamento.verificar("GET", "album-covers/2/minha capa.jpg", expira, assinatura));
+        assertFalse(armazenamento.verificar("GET", "album-covers/1/minha capa.jpg", expira + 60, assinatura));
+
+        HttpUrl vencida = HttpUrl.get(minioService.generatePresignedPutUrl("album-covers/1/nova.jpg", Duration.ofSeconds(-1)));
+        assertFalse(armazenamento.verificar("PUT", "album-covers/1/nova.jpg",
+                Long.parseLong(vencida.queryParameter("expira")), vencida.queryParameter("assinatura")));
+        assertTrue(Long.parseLong(vencida.queryParameter("expira")) < Instant.now().getEpochSecond());
+    }
+
+    private ArmazenamentoLocalService novoArmazenamento() throws Exception {
+        return new ArmazenamentoLocalService(diretorio.toString(), "http://localhost:8080/albumartistaapi", "segredo-de-teste");
+    }
+
+    private static MinioService novoMinioService(ArmazenamentoLocalService armazenamento) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new MinioService(100, Duration.ofMinutes(15), meterRegistry,
+                new CacheImagemService(DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), Duration.ofMinutes(10), meterRegistry),
+                armazenamento);
+    }
+}
@@ -0,0 +1,117 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.CacheDiscoService;
+import com.seplag.artistalbum.shared.service.CacheImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheDiscoServiceTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void shouldKeepFilledObjectsAcrossRestarts() throws Exception {
+        AtomicInteger leituras = new AtomicInteger();
+        MinioService.ObjetoInfo info = info(300, "v1");
+
+        Path arquivo = novoCache(DataSize.ofKilobytes(1)).obter("album-covers/1/capa.jpg", info, (k, t) -> {
+            leituras.incrementAndGet();
+            return new ByteArrayInputStream(new byte[(int) t]);
+        });
+        Files.createFile(diretorio.resolve("interrompido.tmp"));
+
+        // Nova instância sobre o mesmo diretório: o arquivo já baixado é reaproveitado e o temporário descartado
+        CacheDiscoService reiniciado = novoCache(DataSize.ofKilobytes(1));
+        Path reaproveitado = reiniciado.obter("album-covers/1/capa.jpg", info, (k, t) -> {
+            leituras.incrementAndGet();
+            return new ByteArrayInputStream(new byte[(int) t]);
+        });
+
+        assertEquals(arquivo, reaproveitado);
+        assertEquals(1, leituras.get());
+        assertEquals(300, reiniciado.getTotalBytes());
+        assertFalse(Files.exists(diretorio.resolve("interrompido.tmp")));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        CacheDiscoService.escrever(reaproveitado, saida, 100, 50);
+        assertEquals(50, saida.size());
+
+        // Versão nova do objeto (outro ETag) vai para outro arquivo
+        Path novaVersao = reiniciado.obter("album-covers/1/capa.jpg", info(300, "v2"),
+                (k, t) -> new ByteArrayInputStream(new byte[(int) t]));
+        assertNotEquals(arquivo, novaVersao);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenOverBudget() throws Exception {
+        CacheDiscoService cache = novoCache(DataSize.ofBytes(1000));
+        Path a = preencher(cache, "a", 400);
+        Path b = preencher(cache, "b", 400);
+        preencher(cache, "a", 400);
+        Path c = preencher(cache, "c", 400);
+
+        assertTrue(Files.exists(a));
+        assertFalse(Files.exists(b));
+        assertTrue(Files.exists(c));
+        assertEquals(800, cache.getTotalBytes());
+    }
+
+    @Test
+    void shouldFillInBackgroundOnceForConcurrentMisses() throws Exception {
+        CacheDiscoService cache = novoCache(DataSize.ofKilobytes(1));
+        MinioService.ObjetoInfo info = info(300, "v1");
+        AtomicInteger leituras = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        CacheImagemService.LeitorObjeto leitor = (k, t) -> {
+            leituras.incrementAndGet();
+            liberar.await();
+            return new ByteArrayInputStream(new byte[(int) t]);
+        };
+
+        assertNull(cache.buscar("album-covers/1/capa.jpg", info));
+        for (int i = 0; i < 3; i++) {
+            cache.preencherEmSegundoPlano("album-covers/1/capa.jpg", info, leitor);
+        }
+        liberar.countDown();
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.buscar("album-covers/1/capa.jpg", info) == null && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertNotNull(cache.buscar("album-covers/1/capa.jpg", info));
+        assertEquals(1, leituras.get());
+        assertEquals(300, cache.getTotalBytes());
+    }
+
+    private Path preencher(CacheDiscoService cache, String chave, int tamanho) throws Exception {
+        return cache.obter(chave, info(tamanho, "e-" + chave), (k, t) -> new ByteArrayInputStream(new byte[(int) t]));
+    }
+
+    private CacheDiscoService novoCache(DataSize tamanhoMaximo) throws Exception {
+        return new CacheDiscoService(diretorio.toString(), tamanhoMaximo, 2, new SimpleMeterRegistry());
+    }
+
+    private static MinioService.ObjetoInfo info(long tamanho, String etag) {
+        return new MinioService.ObjetoInfo(tamanho, etag, "image/jpeg", ZonedDateTime.now());
+    }
+}
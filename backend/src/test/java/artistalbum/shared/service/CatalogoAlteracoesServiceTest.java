@@ -0,0 +1,58 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.service.BandaService;
+import com.seplag.artistalbum.shared.dto.CatalogoAlteracoesDTO;
+import com.seplag.artistalbum.shared.model.CatalogoExclusaoModel;
+import com.seplag.artistalbum.shared.repository.CatalogoExclusaoRepository;
+import com.seplag.artistalbum.shared.service.CatalogoAlteracoesService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogoAlteracoesServiceTest {
+
+    @Test
+    void shouldTakeNextTokenFromDatabaseAndQueryFromTokenMinusMargin() {
+        ArtistaService artistaService = mock(ArtistaService.class);
+        AlbumService albumService = mock(AlbumService.class);
+        BandaService bandaService = mock(BandaService.class);
+        CatalogoExclusaoRepository exclusaoRepository = mock(CatalogoExclusaoRepository.class);
+
+        LocalDateTime token = LocalDateTime.of(2026, 3, 1, 12, 0, 0);
+        LocalDateTime desde = token.minusSeconds(5);
+        // Relógio do banco, não o da JVM
+        LocalDateTime agoraNoBanco = LocalDateTime.of(2026, 3, 1, 12, 30, 0, 123_456_000);
+        when(exclusaoRepository.agora()).thenReturn(agoraNoBanco);
+
+        CatalogoExclusaoModel exclusao = mock(CatalogoExclusaoModel.class);
+        when(exclusao.getEntidade()).thenReturn("album");
+        when(exclusao.getIdEntidade()).thenReturn(42L);
+        when(exclusao.getDataExclusao()).thenReturn(token.plusMinutes(1));
+        when(exclusaoRepository.findByDataExclusaoAfterOrderByDataExclusaoAsc(desde)).thenReturn(List.of(exclusao));
+
+        CatalogoAlteracoesService service = new CatalogoAlteracoesService(
+                artistaService, albumService, bandaService, exclusaoRepository, Duration.ofSeconds(5));
+
+        CatalogoAlteracoesDTO alteracoes = service.obterAlteracoesDesde(token);
+
+        assertEquals("2026-03-01T12:30:00.123456", alteracoes.getProximoToken());
+        assertEquals(agoraNoBanco, LocalDateTime.parse(alteracoes.getProximoToken()));
+        verify(artistaService).listarAlteradosDesde(desde);
+        verify(albumService).listarAlteradosDesde(desde);
+        verify(bandaService).listarAlteradasDesde(desde);
+
+        assertEquals(1, alteracoes.getExclusoes().size());
+        assertEquals("album", alteracoes.getExclusoes().get(0).getEntidade());
+        assertEquals(42L, alteracoes.getExclusoes().get(0).getId());
+        assertEquals(token.plusMinutes(1), alteracoes.getExclusoes().get(0).getDataExclusao());
+    }
+}
@@ -0,0 +1,79 @@
+package artistalbum.shared.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.service.BandaService;
+import com.seplag.artistalbum.shared.service.CatalogoService;
+import com.seplag.artistalbum.shared.websocket.UpdateMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogoServiceTest {
+
+    @Test
+    void shouldServeSnapshotUntilCatalogChanges() throws Exception {
+        ArtistaService artistaService = mock(ArtistaService.class);
+        AlbumService albumService = mock(AlbumService.class);
+        BandaService bandaService = mock(BandaService.class);
+
+        when(artistaService.listarTodos()).thenReturn(List.of());
+        when(albumService.listarTodosAlbunsNovo()).thenReturn(List.of());
+        when(bandaService.listarTodas()).thenReturn(List.of());
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CatalogoService service = new CatalogoService(
+                artistaService,
+                albumService,
+                bandaService,
+                Duration.ofMinutes(15),
+                true,
+                meterRegistry,
+                new ObjectMapper().findAndRegisterModules()
+        );
+
+        CatalogoService.CatalogoSnapshot primeiro = service.obterSnapshot();
+        CatalogoService.CatalogoSnapshot segundo = service.obterSnapshot();
+
+        assertSame(primeiro, segundo);
+        assertEquals("{\"artistas\":[],\"albuns\":[],\"bandas\":[]}", new String(primeiro.json(), StandardCharsets.UTF_8));
+        assertArrayEquals(primeiro.json(), new GZIPInputStream(new ByteArrayInputStream(primeiro.jsonGzip())).readAllBytes());
+        verify(albumService, times(1)).listarTodosAlbunsNovo();
+        assertEquals(1L, meterRegistry.timer("catalogo.montagem", "modo", "paralelo").count());
+
+        service.aoAtualizarCatalogo(new UpdateMessage("album", "created", 1L));
+
+        verify(albumService, timeout(2000).times(2)).listarTodosAlbunsNovo();
+        service.encerrar();
+        assertEquals(0L, primeiro.versao());
+    }
+
+    @Test
+    void shouldChangeEtagWhenVersionOrGenerationChanges() {
+        Instant agora = Instant.now();
+        CatalogoService.CatalogoSnapshot v1 = new CatalogoService.CatalogoSnapshot(1L, null, agora, null, null);
+        CatalogoService.CatalogoSnapshot v2 = new CatalogoService.CatalogoSnapshot(2L, null, agora, null, null);
+        CatalogoService.CatalogoSnapshot v1Renovado = new CatalogoService.CatalogoSnapshot(1L, null, agora.plusSeconds(900), null, null);
+
+        assertEquals(v1.etag(), new CatalogoService.CatalogoSnapshot(1L, null, agora, null, null).etag());
+        assertNotEquals(v1.etag(), v2.etag());
+        assertNotEquals(v1.etag(), v1Renovado.etag());
+    }
+}
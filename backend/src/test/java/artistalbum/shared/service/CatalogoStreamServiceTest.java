@@ -0,0 +1,62 @@
+package artistalbum.shared.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seplag.artistalbum.domain.album.dto.AlbumDTO;
+import com.seplag.artistalbum.domain.album.service.AlbumService;
+import com.seplag.artistalbum.domain.artista.dto.ArtistaResponseDTO;
+import com.seplag.artistalbum.domain.artista.service.ArtistaService;
+import com.seplag.artistalbum.domain.banda.service.BandaService;
+import com.seplag.artistalbum.shared.service.CatalogoStreamService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class CatalogoStreamServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteEachRowStraightToOutput() throws Exception {
+        ArtistaService artistaService = mock(ArtistaService.class);
+        AlbumService albumService = mock(AlbumService.class);
+        BandaService bandaService = mock(BandaService.class);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        CatalogoStreamService service = new CatalogoStreamService(
+                artistaService,
+                albumService,
+                bandaService,
+                objectMapper,
+                mock(EntityManager.class)
+        );
+
+        doAnswer(inv -> {
+            ArtistaResponseDTO artista = new ArtistaResponseDTO();
+            artista.setIdArtista(5L);
+            artista.setNomeArtista("Elis Regina");
+            ((Consumer<ArtistaResponseDTO>) inv.getArgument(0)).accept(artista);
+            return null;
+        }).when(artistaService).percorrerTodos(any());
+        doAnswer(inv -> {
+            Consumer<AlbumDTO> consumidor = inv.getArgument(0);
+            consumidor.accept(new AlbumDTO(10L, "Luz", null, null));
+            consumidor.accept(new AlbumDTO(11L, "Seduzir", null, null));
+            return null;
+        }).when(albumService).percorrerTodosAlbuns(any());
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        service.escreverCatalogo(saida);
+
+        JsonNode json = objectMapper.readTree(saida.toByteArray());
+        assertEquals("Elis Regina", json.get("artistas").get(0).get("nomeArtista").asText());
+        assertEquals(2, json.get("albuns").size());
+        assertEquals(0, json.get("bandas").size());
+    }
+}
@@ -0,0 +1,88 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.domain.album.repository.AlbumCapaRepository;
+import com.seplag.artistalbum.domain.artista.repository.ArtistaRepository;
+import com.seplag.artistalbum.shared.dto.RelatorioOrfaosDTO;
+import com.seplag.artistalbum.shared.service.ColetorOrfaosService;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ColetorOrfaosServiceTest {
+
+    private final MinioService minioService = mock(MinioService.class);
+    private final AlbumCapaRepository albumCapaRepository = mock(AlbumCapaRepository.class);
+    private final ArtistaRepository artistaRepository = mock(ArtistaRepository.class);
+    private final ConteudoImagemService conteudoImagem = mock(ConteudoImagemService.class);
+
+    @Test
+    void shouldOnlyReportOrphansInDryRun() throws Exception {
+        when(minioService.listFiles(eq("album-covers/"), anyInt())).thenReturn(Stream.of(
+                antigo("album-covers/1/capa.jpg", 100),
+                antigo("album-covers/1/capa.jpg@256.jpg", 10),
+                antigo("album-covers/2/capa.jpg", 200),
+                antigo("album-covers/2/capa.jpg@64.jpg", 5),
+                new MinioService.ObjetoListado("album-covers/3/nova.jpg", 300, ZonedDateTime.now())));
+        when(minioService.listFiles(eq("artist-covers/"), anyInt())).thenReturn(Stream.empty());
+        when(minioService.listFiles(eq("conteudo/"), anyInt())).thenReturn(Stream.empty());
+        when(albumCapaRepository.findChavesExistentes(anyCollection())).thenReturn(List.of("album-covers/1/capa.jpg"));
+
+        RelatorioOrfaosDTO relatorio = coletor(500).executar(true).orElseThrow();
+
+        assertTrue(relatorio.isConcluido());
+        assertEquals(5, relatorio.getObjetosListados());
+        assertEquals(1, relatorio.getObjetosRecentes());
+        assertEquals(2, relatorio.getOrfaos());
+        assertEquals(205, relatorio.getBytesOrfaos());
+        assertEquals(List.of("album-covers/2/capa.jpg", "album-covers/2/capa.jpg@64.jpg"), relatorio.getAmostraOrfaos());
+        assertEquals(0, relatorio.getRemovidos());
+        verify(minioService, never()).deleteFiles(anyCollection());
+    }
+
+    @Test
+    void shouldRemoveOrphansBatchByBatch() throws Exception {
+        when(minioService.listFiles(eq("album-covers/"), anyInt())).thenReturn(Stream.empty());
+        when(minioService.listFiles(eq("conteudo/"), anyInt())).thenReturn(Stream.empty());
+        when(minioService.listFiles(eq("artist-covers/"), eq(2))).thenReturn(Stream.of(
+                antigo("artist-covers/1/foto.jpg", 1),
+                antigo("artist-covers/2/foto.jpg", 1),
+                antigo("artist-covers/3/foto.jpg", 1)));
+        when(artistaRepository.findFotosExistentes(anyCollection())).thenReturn(List.of("artist-covers/1/foto.jpg"));
+        when(minioService.deleteFiles(List.of("artist-covers/2/foto.jpg"))).thenReturn(List.of());
+        when(minioService.deleteFiles(List.of("artist-covers/3/foto.jpg"))).thenReturn(List.of("artist-covers/3/foto.jpg"));
+
+        RelatorioOrfaosDTO relatorio = coletor(2).executar(false).orElseThrow();
+
+        assertEquals(2, relatorio.getOrfaos());
+        assertEquals(1, relatorio.getRemovidos());
+        assertEquals(1, relatorio.getFalhas());
+        // Uma consulta por lote, nunca uma por objeto
+        verify(artistaRepository, times(2)).findFotosExistentes(anyCollection());
+        verify(minioService).deleteFiles(List.of("artist-covers/2/foto.jpg"));
+    }
+
+    private ColetorOrfaosService coletor(int lote) {
+        return new ColetorOrfaosService(minioService, albumCapaRepository, artistaRepository, conteudoImagem,
+                lote, 0, Duration.ofHours(24), Duration.ZERO, true);
+    }
+
+    private static MinioService.ObjetoListado antigo(String chave, long tamanho) {
+        return new MinioService.ObjetoListado(chave, tamanho, ZonedDateTime.now().minusDays(2));
+    }
+}
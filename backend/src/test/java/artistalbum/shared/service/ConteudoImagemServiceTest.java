@@ -0,0 +1,117 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.repository.ConteudoImagemRepository;
+import com.seplag.artistalbum.shared.service.ConteudoImagemService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConteudoImagemServiceTest {
+
+    private final ConteudoImagemRepository repository = mock(ConteudoImagemRepository.class);
+    private final TransferenciaImagensService transferenciaImagens = mock(TransferenciaImagensService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ConteudoImagemService service = new ConteudoImagemService(repository, transferenciaImagens,
+            new TransactionTemplate(transactionManager));
+
+    @Test
+    void shouldKeyObjectsBySha256OfStreamedContent() throws Exception {
+        byte[] dados = "abc".getBytes(StandardCharsets.UTF_8);
+        String hash = ConteudoImagemService.calcularHash(new ByteArrayInputStream(dados));
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hash);
+        assertEquals(hash, ConteudoImagemService.calcularHash(dados));
+        assertEquals("conteudo/ba/" + hash, ConteudoImagemService.chave(hash));
+    }
+
+    @Test
+    void shouldRemoveSharedContentOnlyAfterLastReference() {
+        String compartilhada = ConteudoImagemService.chave("a".repeat(64));
+        String ultima = ConteudoImagemService.chave("b".repeat(64));
+        when(repository.findSemReferenciasParaRemocao(Set.of(compartilhada, ultima))).thenReturn(List.of(ultima));
+
+        service.liberar(List.of(compartilhada, ultima, "album-covers/1/antiga.jpg"));
+
+        // O trigger só desconta as referências depois do flush
+        var ordem = inOrder(repository);
+        ordem.verify(repository).flush();
+        ordem.verify(repository).findSemReferenciasParaRemocao(anyCollection());
+        verify(repository).removerPorChaves(List.of(ultima));
+        verify(transferenciaImagens).removerAposCommit(List.of(
+                "album-covers/1/antiga.jpg",
+                "album-covers/1/antiga.jpg@64.jpg", "album-covers/1/antiga.jpg@256.jpg", "album-covers/1/antiga.jpg@1024.jpg"));
+
+        // Depois do commit, numa transação própria: sem linha nova para o hash, o objeto e os derivados saem
+        ArgumentCaptor<Runnable> remocao = ArgumentCaptor.forClass(Runnable.class);
+        verify(transferenciaImagens).executarAposCommit(remocao.capture());
+        when(repository.findChavesExistentes(anyCollection())).thenReturn(List.of());
+        remocao.getValue().run();
+
+        var aposCommit = inOrder(transactionManager, repository, transferenciaImagens);
+        aposCommit.verify(transactionManager).getTransaction(any());
+        aposCommit.verify(repository).travarHash("b".repeat(64));
+        aposCommit.verify(repository).findChavesExistentes(anyCollection());
+        aposCommit.verify(transferenciaImagens).removerTodos(List.of(ultima, ultima + "@64.jpg", ultima + "@256.jpg", ultima + "@1024.jpg"));
+        aposCommit.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void shouldKeepReleasedContentRegisteredAgainBeforeTheDeferredRemoval() {
+        String chave = ConteudoImagemService.chave("f".repeat(64));
+        when(repository.findSemReferenciasParaRemocao(Set.of(chave))).thenReturn(List.of(chave));
+
+        service.liberar(List.of(chave));
+
+        ArgumentCaptor<Runnable> remocao = ArgumentCaptor.forClass(Runnable.class);
+        verify(transferenciaImagens).executarAposCommit(remocao.capture());
+        // Outra requisição enviou o mesmo conteúdo e o registrou entre o commit e a remoção
+        when(repository.findChavesExistentes(anyCollection())).thenReturn(List.of(chave));
+        remocao.getValue().run();
+
+        verify(repository).travarHash("f".repeat(64));
+        verify(transferenciaImagens).removerTodos(List.of());
+    }
+
+    @Test
+    void shouldRefuseToReferenceContentRemovedSinceTheLookup() {
+        ConteudoImagemService.Conteudo conteudo = ConteudoImagemService.Conteudo.de("c".repeat(64), 3, "image/png");
+        when(repository.travar(conteudo.hash())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> service.reservar(conteudo, false));
+        verify(repository).travarHash(conteudo.hash());
+        verify(repository, never()).inserir(conteudo.hash(), conteudo.chave(), 3, "image/png");
+    }
+
+    @Test
+    void shouldLockHashesBeforeDiscardingUnregisteredUploads() {
+        String reservadaPorOutra = ConteudoImagemService.chave("e".repeat(64));
+        String semLinha = ConteudoImagemService.chave("d".repeat(64));
+        when(repository.findChavesExistentes(anyCollection())).thenReturn(List.of(reservadaPorOutra));
+
+        service.descartarNaoRegistrados(List.of(reservadaPorOutra, semLinha));
+
+        // A verificação só acontece depois de esperar quem reservou o mesmo hash, e as travas seguem a ordem do hash
+        var ordem = inOrder(repository, transferenciaImagens);
+        ordem.verify(repository).travarHash("d".repeat(64));
+        ordem.verify(repository).travarHash("e".repeat(64));
+        ordem.verify(repository).findChavesExistentes(anyCollection());
+        ordem.verify(transferenciaImagens).removerTodos(List.of(semLinha));
+    }
+}
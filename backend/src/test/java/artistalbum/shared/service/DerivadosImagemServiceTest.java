@@ -0,0 +1,76 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.DerivadosImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DerivadosImagemServiceTest {
+
+    private static final String CHAVE = "album-covers/10/capa.png";
+
+    private final MinioService minioService = mock(MinioService.class);
+    private final DerivadosImagemService service = new DerivadosImagemService(minioService, 1);
+
+    @Test
+    void shouldDetectTypeByMagicBytes() throws Exception {
+        assertEquals("image/png", DerivadosImagemService.detectarTipo(png(10, 10)));
+        assertEquals("image/webp", DerivadosImagemService.detectarTipo("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.ISO_8859_1)));
+        // Extensão/Content-Type de imagem não bastam: HTML/SVG disfarçado é recusado
+        assertNull(DerivadosImagemService.detectarTipo("<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void shouldUploadFixedSizeJpegDerivativesNextToOriginal() throws Exception {
+        List<String> chaves = service.gerarDerivados(CHAVE, png(2000, 1000));
+
+        assertEquals(List.of(CHAVE + "@64.jpg", CHAVE + "@256.jpg", CHAVE + "@1024.jpg"), chaves);
+        ArgumentCaptor<byte[]> miniatura = ArgumentCaptor.forClass(byte[].class);
+        verify(minioService).uploadFile(eq(CHAVE + "@256.jpg"), miniatura.capture(), eq("image/jpeg"));
+        assertEquals("image/jpeg", DerivadosImagemService.detectarTipo(miniatura.getValue()));
+        BufferedImage imagem = ImageIO.read(new ByteArrayInputStream(miniatura.getValue()));
+        assertEquals(256, imagem.getWidth());
+        assertEquals(128, imagem.getHeight());
+    }
+
+    @Test
+    void shouldGenerateTinyInlineJpegPlaceholder() throws Exception {
+        String placeholder = DerivadosImagemService.gerarPlaceholder(new ByteArrayInputStream(png(3000, 1500)));
+
+        assertTrue(placeholder.startsWith("data:image/jpeg;base64,"));
+        assertTrue(placeholder.length() <= DerivadosImagemService.TAMANHO_MAXIMO_PLACEHOLDER);
+        byte[] jpeg = Base64.getDecoder().decode(placeholder.substring(placeholder.indexOf(',') + 1));
+        BufferedImage imagem = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertEquals(16, imagem.getWidth());
+        assertEquals(8, imagem.getHeight());
+    }
+
+    @Test
+    void shouldServeDerivativeOnlyWhenReady() {
+        assertEquals(CHAVE + "@256.jpg", DerivadosImagemService.chaveEntrega(CHAVE, true, 100));
+        assertEquals(CHAVE, DerivadosImagemService.chaveEntrega(CHAVE, false, 100));
+        // Maior que a maior miniatura: só o original serve
+        assertEquals(CHAVE, DerivadosImagemService.chaveEntrega(CHAVE, true, 4000));
+    }
+
+    private static byte[] png(int largura, int altura) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB), "png", saida);
+        return saida.toByteArray();
+    }
+}
@@ -0,0 +1,263 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.CacheDiscoService;
+import com.seplag.artistalbum.shared.service.CacheImagemService;
+import com.seplag.artistalbum.shared.service.ImagemStreamService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImagemStreamServiceTest {
+
+    private static final String CHAVE = "album-covers/10/capa.jpg";
+
+    private final MinioService minioService = mock(MinioService.class);
+    // Sem cache em memória (nenhum objeto cabe): os testes de stream leem direto do MinIO
+    private final ImagemStreamService service = new ImagemStreamService(minioService, cache(DataSize.ofBytes(0), new SimpleMeterRegistry()), semDisco(), "proxy");
+
+    @Test
+    void shouldStreamRequestedRangeWithPartialContent() throws Exception {
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(1000, "abc123", "image/jpeg", ZonedDateTime.now()));
+        when(minioService.abrirStream(CHAVE, 100, 100))
+                .thenReturn(new ByteArrayInputStream("x".repeat(100).getBytes(StandardCharsets.UTF_8)));
+
+        MockHttpServletRequest requisicao = new MockHttpServletRequest();
+        requisicao.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        ResponseEntity<StreamingResponseBody> resposta = service.entregar(CHAVE, "image/jpeg", web(requisicao));
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, resposta.getStatusCode());
+        assertEquals("bytes 100-199/1000", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(100, resposta.getHeaders().getContentLength());
+        assertEquals("\"abc123\"", resposta.getHeaders().getETag());
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        resposta.getBody().writeTo(saida);
+        assertEquals(100, saida.size());
+        verify(minioService).abrirStream(CHAVE, 100, 100);
+    }
+
+    @Test
+    void shouldServeWholeObjectWhenIfRangeDoesNotMatch() throws Exception {
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(1000, "novo", "image/jpeg", ZonedDateTime.now()));
+
+        MockHttpServletRequest requisicao = new MockHttpServletRequest();
+        requisicao.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        requisicao.addHeader(HttpHeaders.IF_RANGE, "\"antigo\"");
+        ResponseEntity<StreamingResponseBody> resposta = service.entregar(CHAVE, "image/jpeg", web(requisicao));
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals(1000, resposta.getHeaders().getContentLength());
+        assertEquals("bytes", resposta.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void shouldRejectRangeBeyondObject() throws Exception {
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(1000, "abc123", "image/jpeg", ZonedDateTime.now()));
+
+        MockHttpServletRequest requisicao = new MockHttpServletRequest();
+        requisicao.addHeader(HttpHeaders.RANGE, "bytes=5000-");
+        ResponseEntity<StreamingResponseBody> resposta = service.entregar(CHAVE, "image/jpeg", web(requisicao));
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, resposta.getStatusCode());
+        assertEquals("bytes */1000", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutOpeningObject() throws Exception {
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(1000, "abc123", "image/jpeg", ZonedDateTime.now()));
+
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/v1/albuns/capa/10");
+        requisicao.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc123\"");
+        MockHttpServletResponse respostaServlet = new MockHttpServletResponse();
+        ResponseEntity<StreamingResponseBody> resposta = service.entregar(CHAVE, "image/jpeg",
+                new ServletWebRequest(requisicao, respostaServlet));
+
+        assertNull(resposta);
+        assertEquals(304, respostaServlet.getStatus());
+        assertEquals("\"abc123\"", respostaServlet.getHeader(HttpHeaders.ETAG));
+        verify(minioService, never()).abrirStream(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldMarkVersionedUrlAsImmutable() throws Exception {
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(1000, "abc123", "image/jpeg", ZonedDateTime.now()));
+
+        MockHttpServletRequest semVersao = new MockHttpServletRequest();
+        assertEquals("no-cache, public",
+                service.entregar(CHAVE, "image/jpeg", web(semVersao)).getHeaders().getCacheControl());
+
+        MockHttpServletRequest comVersao = new MockHttpServletRequest();
+        comVersao.addParameter(ImagemStreamService.PARAMETRO_VERSAO, "abc123");
+        ResponseEntity<StreamingResponseBody> resposta = service.entregar(CHAVE, "image/jpeg", web(comVersao));
+
+        assertTrue(resposta.getHeaders().getCacheControl().contains("immutable"));
+        assertTrue(resposta.getHeaders().getLastModified() > 0);
+    }
+
+    @Test
+    void shouldServeHotImageFromMemoryWithoutCallingMinio() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CacheImagemService cacheImagem = cache(DataSize.ofKilobytes(1), meterRegistry);
+        ImagemStreamService comCache = new ImagemStreamService(minioService, cacheImagem, semDisco(), "proxy");
+        byte[] conteudo = "y".repeat(200).getBytes(StandardCharsets.UTF_8);
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(200, "abc123", "image/jpeg", ZonedDateTime.now()));
+        when(minioService.abrirStream(CHAVE, 0, 200)).thenReturn(new ByteArrayInputStream(conteudo));
+
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            entregarInteira(comCache, saida);
+            assertEquals(200, saida.size());
+        }
+
+        MockHttpServletRequest parcial = new MockHttpServletRequest();
+        parcial.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+        ByteArrayOutputStream trecho = new ByteArrayOutputStream();
+        comCache.entregar(CHAVE, "image/jpeg", web(parcial)).getBody().writeTo(trecho);
+        assertEquals(10, trecho.size());
+
+        verify(minioService, times(1)).obterInfo(CHAVE);
+        verify(minioService, times(1)).abrirStream(CHAVE, 0, 200);
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "imagem.memoria").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "imagem.memoria").tag("result", "miss").functionCounter().count());
+
+        cacheImagem.invalidar(CHAVE);
+        when(minioService.abrirStream(CHAVE, 0, 200)).thenReturn(new ByteArrayInputStream(conteudo));
+        entregarInteira(comCache, new ByteArrayOutputStream());
+        verify(minioService, times(2)).obterInfo(CHAVE);
+    }
+
+    @Test
+    void shouldStreamRangeOnDiskMissAndFillDiskInBackground(@TempDir Path diretorio) throws Exception {
+        CacheDiscoService cacheDisco = new CacheDiscoService(diretorio.toString(), DataSize.ofMegabytes(1), 1, new SimpleMeterRegistry());
+        ImagemStreamService comDisco = new ImagemStreamService(minioService, cache(DataSize.ofBytes(0), new SimpleMeterRegistry()), cacheDisco, "proxy");
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(1000, "abc123", "image/jpeg", ZonedDateTime.now()));
+        when(minioService.abrirStream(CHAVE, 100, 100)).thenReturn(new ByteArrayInputStream(new byte[100]));
+        when(minioService.abrirStream(CHAVE, 0, 1000)).thenReturn(new ByteArrayInputStream(new byte[1000]));
+
+        // Na falta, a resposta lê só o trecho pedido; o objeto inteiro vai para o disco fora da requisição
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest requisicao = new MockHttpServletRequest();
+            requisicao.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            comDisco.entregar(CHAVE, "image/jpeg", web(requisicao)).getBody().writeTo(saida);
+            assertEquals(100, saida.size());
+            verify(minioService, timeout(5000)).abrirStream(CHAVE, 0, 1000);
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (cacheDisco.getTotalBytes() == 0 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+        }
+
+        // A segunda requisição já encontrou o arquivo
+        verify(minioService, times(1)).abrirStream(CHAVE, 100, 100);
+        verify(minioService, times(1)).abrirStream(CHAVE, 0, 1000);
+        assertEquals(1000, cacheDisco.getTotalBytes());
+    }
+
+    @Test
+    void shouldRedirectToCachedPresignedUrlWithoutTouchingObject() throws Exception {
+        ImagemStreamService redirecionando = new ImagemStreamService(minioService,
+                cache(DataSize.ofBytes(0), new SimpleMeterRegistry()), semDisco(), "assinada");
+        when(minioService.generatePresignedUrl30Min(CHAVE)).thenReturn("http://minio:9000/bucket/capa.jpg?X-Amz-Signature=abc");
+
+        ResponseEntity<StreamingResponseBody> resposta = redirecionando.entregar(CHAVE, "image/jpeg", web(new MockHttpServletRequest()));
+
+        assertEquals(HttpStatus.FOUND, resposta.getStatusCode());
+        assertEquals("http://minio:9000/bucket/capa.jpg?X-Amz-Signature=abc", resposta.getHeaders().getLocation().toString());
+        assertNull(resposta.getBody());
+        verify(minioService, never()).obterInfo(anyString());
+        verify(minioService, never()).abrirStream(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldRedirectToPublicUrlInPublicMode() throws Exception {
+        ImagemStreamService redirecionando = new ImagemStreamService(minioService,
+                cache(DataSize.ofBytes(0), new SimpleMeterRegistry()), semDisco(), "publica");
+        when(minioService.getPublicUrl(CHAVE)).thenReturn("http://cdn.local/bucket/" + CHAVE);
+
+        ResponseEntity<StreamingResponseBody> resposta = redirecionando.entregar(CHAVE, "image/jpeg", web(new MockHttpServletRequest()));
+
+        assertEquals(HttpStatus.FOUND, resposta.getStatusCode());
+        assertEquals("http://cdn.local/bucket/" + CHAVE, resposta.getHeaders().getLocation().toString());
+        verify(minioService, never()).generatePresignedUrl30Min(anyString());
+    }
+
+    @Test
+    void shouldHandLocalFileToSendfileInsteadOfRedirecting(@TempDir Path diretorio) throws Exception {
+        ImagemStreamService redirecionando = new ImagemStreamService(minioService,
+                cache(DataSize.ofMegabytes(1), new SimpleMeterRegistry()), semDisco(), "assinada");
+        Path arquivo = Files.write(diretorio.resolve("capa.jpg"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        when(minioService.arquivoLocal(CHAVE)).thenReturn(arquivo);
+        when(minioService.obterInfo(CHAVE)).thenReturn(new MinioService.ObjetoInfo(10, "abc123", "image/jpeg", ZonedDateTime.now()));
+
+        MockHttpServletRequest comSendfile = new MockHttpServletRequest();
+        comSendfile.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        comSendfile.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        ResponseEntity<StreamingResponseBody> resposta = redirecionando.entregar(CHAVE, "image/jpeg", web(comSendfile));
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, resposta.getStatusCode());
+        assertEquals(4, resposta.getHeaders().getContentLength());
+        assertNull(resposta.getBody());
+        assertEquals(arquivo.toAbsolutePath().toString(), comSendfile.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(2L, comSendfile.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(6L, comSendfile.getAttribute("org.apache.tomcat.sendfile.end"));
+
+        // Sem sendfile (TLS, outro conector): os bytes saem do arquivo local, nunca do cache nem de um redirect
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        redirecionando.entregar(CHAVE, "image/jpeg", web(new MockHttpServletRequest())).getBody().writeTo(saida);
+        assertEquals("0123456789", saida.toString(StandardCharsets.UTF_8));
+        verify(minioService, never()).generatePresignedUrl30Min(anyString());
+        verify(minioService, never()).abrirStream(anyString(), anyLong(), anyLong());
+    }
+
+    private void entregarInteira(ImagemStreamService comCache, ByteArrayOutputStream saida) throws Exception {
+        comCache.entregar(CHAVE, "image/jpeg", web(new MockHttpServletRequest())).getBody().writeTo(saida);
+    }
+
+    private static CacheImagemService cache(DataSize tamanhoMaximoObjeto, SimpleMeterRegistry meterRegistry) {
+        return new CacheImagemService(DataSize.ofMegabytes(1), tamanhoMaximoObjeto, Duration.ofMinutes(10), meterRegistry);
+    }
+
+    private static CacheDiscoService semDisco() {
+        try {
+            return new CacheDiscoService("", DataSize.ofMegabytes(1), 1, new SimpleMeterRegistry());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ServletWebRequest web(MockHttpServletRequest requisicao) {
+        return new ServletWebRequest(requisicao, new MockHttpServletResponse());
+    }
+}
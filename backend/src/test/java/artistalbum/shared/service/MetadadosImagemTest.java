@@ -0,0 +1,134 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.MetadadosImagem;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class MetadadosImagemTest {
+
+    @Test
+    void shouldStripJpegMetadataKeepingOrientationAndImageData() throws Exception {
+        byte[] jpeg = imagem("jpg");
+        // Logo depois do SOI: APP1 EXIF (orientação 6 e um GPS fictício), APP1 XMP, APP13 e COM
+        byte[] comMetadados = concatenar(
+                trecho(jpeg, 0, 2),
+                segmento(0xE1, exif(ByteOrder.LITTLE_ENDIAN, 6)),
+                segmento(0xE1, "http://ns.adobe.com/xap/1.0/\0<x:xmpmeta>autor</x:xmpmeta>".getBytes(StandardCharsets.ISO_8859_1)),
+                segmento(0xED, "Photoshop 3.0\0IPTC".getBytes(StandardCharsets.ISO_8859_1)),
+                segmento(0xFE, "camera do fulano".getBytes(StandardCharsets.ISO_8859_1)),
+                trecho(jpeg, 2, jpeg.length));
+
+        byte[] filtrado = lerAosPoucos(MetadadosImagem.semMetadados(new ByteArrayInputStream(comMetadados), "image/jpeg"));
+
+        byte[] esperado = concatenar(trecho(jpeg, 0, 2), segmento(0xE1, exif(ByteOrder.BIG_ENDIAN, 6)), trecho(jpeg, 2, jpeg.length));
+        assertArrayEquals(esperado, filtrado);
+        assertNotNull(ImageIO.read(new ByteArrayInputStream(filtrado)));
+
+        // Orientação padrão: nada do EXIF fica
+        byte[] semOrientacao = concatenar(trecho(jpeg, 0, 2), segmento(0xE1, exif(ByteOrder.BIG_ENDIAN, 1)), trecho(jpeg, 2, jpeg.length));
+        assertArrayEquals(jpeg, MetadadosImagem.semMetadados(semOrientacao, "image/jpeg"));
+    }
+
+    @Test
+    void shouldStripPngTextChunksAndPassOtherFormatsThrough() throws Exception {
+        byte[] png = imagem("png");
+        // Depois da assinatura (8) e do IHDR (8 + 13 + 4)
+        int fimIhdr = 8 + 25;
+        byte[] comMetadados = concatenar(
+                trecho(png, 0, fimIhdr),
+                chunk("tEXt", "Author\0fulano".getBytes(StandardCharsets.ISO_8859_1)),
+                chunk("eXIf", exif(ByteOrder.BIG_ENDIAN, 6)),
+                trecho(png, fimIhdr, png.length));
+
+        assertArrayEquals(png, lerAosPoucos(MetadadosImagem.semMetadados(new ByteArrayInputStream(comMetadados), "image/png")));
+
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 EXIF".getBytes(StandardCharsets.ISO_8859_1);
+        assertArrayEquals(webp, MetadadosImagem.semMetadados(webp, "image/webp"));
+    }
+
+    @Test
+    void shouldCopyTruncatedImageAsIs() throws Exception {
+        byte[] jpeg = imagem("jpg");
+        byte[] truncado = trecho(jpeg, 0, 30);
+
+        assertEquals(30, MetadadosImagem.semMetadados(truncado, "image/jpeg").length);
+    }
+
+    private static byte[] imagem(String formato) throws Exception {
+        BufferedImage imagem = new BufferedImage(32, 24, BufferedImage.TYPE_INT_RGB);
+        imagem.setRGB(3, 4, 0xFF0000);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, formato, saida);
+        return saida.toByteArray();
+    }
+
+    // "Exif\0\0" + TIFF com um IFD0 de uma entrada (Orientation, SHORT); em little-endian inclui uma tag GPS
+    private static byte[] exif(ByteOrder ordem, int orientacao) {
+        boolean comGps = ordem == ByteOrder.LITTLE_ENDIAN;
+        int entradas = comGps ? 2 : 1;
+        ByteBuffer tiff = ByteBuffer.allocate(6 + 8 + 2 + entradas * 12 + 4).order(ordem);
+        tiff.put("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1));
+        tiff.put(ordem == ByteOrder.BIG_ENDIAN ? (byte) 'M' : (byte) 'I').put(ordem == ByteOrder.BIG_ENDIAN ? (byte) 'M' : (byte) 'I');
+        tiff.putShort((short) 42).putInt(8).putShort((short) entradas);
+        if (comGps) {
+            tiff.putShort((short) 0x8825).putShort((short) 4).putInt(1).putInt(0);
+        }
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientacao).putShort((short) 0);
+        tiff.putInt(0);
+        return tiff.array();
+    }
+
+    private static byte[] segmento(int marcador, byte[] conteudo) {
+        ByteBuffer segmento = ByteBuffer.allocate(4 + conteudo.length);
+        segmento.put((byte) 0xFF).put((byte) marcador).putShort((short) (conteudo.length + 2)).put(conteudo);
+        return segmento.array();
+    }
+
+    private static byte[] chunk(String tipo, byte[] dados) {
+        CRC32 crc = new CRC32();
+        crc.update(tipo.getBytes(StandardCharsets.ISO_8859_1));
+        crc.update(dados);
+        ByteBuffer chunk = ByteBuffer.allocate(12 + dados.length);
+        chunk.putInt(dados.length).put(tipo.getBytes(StandardCharsets.ISO_8859_1)).put(dados).putInt((int) crc.getValue());
+        return chunk.array();
+    }
+
+    // Lê em pedaços pequenos para exercitar as fronteiras entre trechos
+    private static byte[] lerAosPoucos(InputStream entrada) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int lidos;
+        try (entrada) {
+            while ((lidos = entrada.read(buffer)) >= 0) {
+                saida.write(buffer, 0, lidos);
+            }
+        }
+        return saida.toByteArray();
+    }
+
+    private static byte[] trecho(byte[] dados, int inicio, int fim) {
+        return Arrays.copyOfRange(dados, inicio, fim);
+    }
+
+    private static byte[] concatenar(byte[]... partes) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        for (byte[] parte : partes) {
+            saida.write(parte);
+        }
+        return saida.toByteArray();
+    }
+}
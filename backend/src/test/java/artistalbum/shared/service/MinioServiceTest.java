@@ -0,0 +1,64 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.ArmazenamentoAsyncService;
+import com.seplag.artistalbum.shared.service.CacheImagemService;
+import com.seplag.artistalbum.shared.service.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinioServiceTest {
+
+    @Test
+    void shouldReusePresignedUrlWithinReuseWindow() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MinioService service = novoServico(Duration.ofMinutes(15), meterRegistry);
+
+        String primeira = service.generatePresignedUrl30Min("album-covers/1/capa.jpg");
+        String segunda = service.generatePresignedUrl30Min("album-covers/1/capa.jpg");
+        String outra = service.generatePresignedUrl30Min("album-covers/2/capa.jpg");
+
+        assertEquals(primeira, segunda);
+        assertNotEquals(primeira, outra);
+        assertTrue(primeira.contains("X-Amz-Expires=1800"));
+
+        Map<String, String> lote = service.generatePresignedUrls30Min(
+                List.of("album-covers/1/capa.jpg", "album-covers/2/capa.jpg", "album-covers/3/capa.jpg"));
+
+        assertEquals(3, lote.size());
+        assertEquals(primeira, lote.get("album-covers/1/capa.jpg"));
+        // 3 assinaturas (1, 2 e 3) para 6 pedidos
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "minio.url-assinada").tag("result", "hit").functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "minio.url-assinada").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void shouldRejectReuseWindowNotShorterThanValidity() {
+        assertThrows(IllegalArgumentException.class, () -> novoServico(Duration.ofMinutes(30), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void shouldBuildPublicUrlOnPublicEndpointWithEncodedKey() {
+        MinioService service = novoServico(Duration.ofMinutes(15), new SimpleMeterRegistry());
+
+        assertEquals("http://localhost:9000/artist-album-covers/album-covers/1/minha%20capa.jpg",
+                service.getPublicUrl("album-covers/1/minha capa.jpg"));
+    }
+
+    private MinioService novoServico(Duration reuso, SimpleMeterRegistry meterRegistry) {
+        ArmazenamentoAsyncService armazenamento = new ArmazenamentoAsyncService("http://localhost:9000", "http://localhost:9000",
+                "admin123", "admin123", "artist-album-covers", 4, Duration.ofMinutes(1), 8, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        return new MinioService(100, reuso, meterRegistry,
+                new CacheImagemService(DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), Duration.ofMinutes(10), meterRegistry),
+                armazenamento);
+    }
+}
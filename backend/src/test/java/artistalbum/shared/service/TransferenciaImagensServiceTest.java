@@ -0,0 +1,67 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.TransferenciaImagensService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransferenciaImagensServiceTest {
+
+    private final MinioService minioService = mock(MinioService.class);
+    private final TransferenciaImagensService service = new TransferenciaImagensService(minioService, 3);
+
+    @Test
+    void shouldRunUploadsConcurrently() throws Exception {
+        // Cada PUT só termina quando os três começaram: em série isso nunca aconteceria
+        CountDownLatch iniciados = new CountDownLatch(3);
+        doAnswer(invocacao -> {
+            iniciados.countDown();
+            assertTrue(iniciados.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(minioService).uploadStream(anyString(), any(InputStream.class), anyLong(), anyString());
+
+        service.enviarTodos(List.of(envio("a"), envio("b"), envio("c")));
+
+        assertEquals(0, iniciados.getCount());
+    }
+
+    @Test
+    void shouldDeleteAlreadyUploadedObjectsWhenOneFails() throws Exception {
+        when(minioService.deleteFileAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
+        doThrow(new IOException("conexão recusada"))
+                .when(minioService).uploadStream(eq("b"), any(InputStream.class), anyLong(), anyString());
+
+        IOException falha = assertThrows(IOException.class,
+                () -> service.enviarTodos(List.of(envio("a"), envio("b"), envio("c"))));
+
+        assertEquals("conexão recusada", falha.getMessage());
+        verify(minioService).deleteFileAsync("a");
+        verify(minioService).deleteFileAsync("c");
+        verify(minioService, never()).deleteFileAsync("b");
+    }
+
+    private static TransferenciaImagensService.Envio envio(String chave) {
+        return new TransferenciaImagensService.Envio(chave, 1, "image/png", () -> new ByteArrayInputStream(new byte[1]));
+    }
+}
@@ -0,0 +1,76 @@
+package artistalbum.shared.service;
+
+import com.seplag.artistalbum.shared.dto.UploadIntencaoDTO;
+import com.seplag.artistalbum.shared.dto.UploadIntencaoRequestDTO;
+import com.seplag.artistalbum.shared.exception.InvalidUploadException;
+import com.seplag.artistalbum.shared.service.MinioService;
+import com.seplag.artistalbum.shared.service.UploadDiretoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadDiretoServiceTest {
+
+    private static final String PREFIXO = "album-covers/10/";
+    private static final byte[] CABECALHO_PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D};
+
+    private final MinioService minioService = mock(MinioService.class);
+    private final UploadDiretoService service = new UploadDiretoService(minioService, DataSize.ofMegabytes(1));
+
+    @Test
+    void shouldIssuePresignedPutForNewKeyUnderOwnerPrefix() throws Exception {
+        when(minioService.generatePresignedPutUrl(anyString(), any(Duration.class))).thenReturn("http://minio/put");
+        UploadIntencaoRequestDTO pedido = new UploadIntencaoRequestDTO();
+        pedido.setTipoConteudo("image/png");
+        pedido.setTamanho(1024L);
+
+        UploadIntencaoDTO intencao = service.criarIntencao(PREFIXO, pedido);
+
+        assertTrue(intencao.getChaveObjeto().startsWith(PREFIXO));
+        assertTrue(intencao.getChaveObjeto().endsWith(".png"));
+        assertEquals("http://minio/put", intencao.getUrlUpload());
+        assertEquals("PUT", intencao.getMetodo());
+    }
+
+    @Test
+    void shouldRejectKeyOutsideOwnerPrefix() throws Exception {
+        assertThrows(InvalidUploadException.class, () -> service.confirmar(PREFIXO, "album-covers/11/x.png"));
+        assertThrows(InvalidUploadException.class, () -> service.confirmar(PREFIXO, PREFIXO + "../11/x.png"));
+        verify(minioService, never()).obterInfo(anyString());
+    }
+
+    @Test
+    void shouldDeleteUploadedObjectThatIsNotAnImage() throws Exception {
+        String chave = PREFIXO + "falso.png";
+        when(minioService.obterInfo(chave)).thenReturn(new MinioService.ObjetoInfo(64, "\"e\"", "image/png", ZonedDateTime.now()));
+        when(minioService.abrirStream(chave, 0, 12))
+                .thenReturn(new ByteArrayInputStream("<html><body>".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(InvalidUploadException.class, () -> service.confirmar(PREFIXO, chave));
+        verify(minioService).deleteFile(chave);
+    }
+
+    @Test
+    void shouldConfirmImageAndReturnDetectedType() throws Exception {
+        String chave = PREFIXO + "capa.png";
+        when(minioService.obterInfo(chave)).thenReturn(new MinioService.ObjetoInfo(2048, "\"e\"", "application/octet-stream", ZonedDateTime.now()));
+        when(minioService.abrirStream(chave, 0, 12)).thenReturn(new ByteArrayInputStream(CABECALHO_PNG));
+
+        assertEquals("image/png", service.confirmar(PREFIXO, chave));
+        verify(minioService, never()).deleteFile(anyString());
+    }
+}
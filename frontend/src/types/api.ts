@@ -36,6 +36,7 @@ export type AlbumDTO = {
   nomeArtista?: string;
   urlImagemCapa?: string;
   urlImagemCapaAssinada?: string;
+  placeholderCapa?: string | null;
   dataCriacao?: string;
   dataAtualizacao?: string;
 };
@@ -45,6 +46,7 @@ export type AlbumCapaDTO = {
   chaveObjeto?: string;
   urlAssinada?: string | null;
   principal?: boolean;
+  placeholder?: string | null;
 };
 
 export type BandaResumoDTO = {